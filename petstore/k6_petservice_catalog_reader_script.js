@@ -0,0 +1,21 @@
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+// Compare petstore.catalog.reader=jpa and =jdbc: run once against each deployment and compare
+// http_req_duration together with the "Loaded ... pets with ..." refresh times in the logs.
+// The admin reader endpoint runs the configured reader on every request (no snapshot, no response
+// cache); enable it with PETSTORE_CATALOG_READER_ENDPOINT_ENABLED=true.
+const BASE_URL = __ENV.PETSERVICE_URL || 'http://localhost:8080';
+
+export let options = {
+    stages: [
+        { duration: '30s', target: 20 },  // Ramp-up to 20 users over 30 seconds
+        { duration: '3m', target: 20 },   // Stay at 20 users for 3 minutes
+    ],
+};
+
+export default function () {
+    const res = http.get(`${BASE_URL}/petstorepetservice/v2/admin/catalog/reader?status=available`);
+    check(res, { 'status is 200': (r) => r.status === 200 });
+    sleep(0.1);
+}
@@ -160,16 +160,21 @@ public class WebAppController {
 			return "home";
 		}
 
+		Pet pet = null;
+
 		if (null == this.sessionUser.getPets()) {
-			this.petStoreService.getPets(category);
+			// deep link or another container served the breeds page: fetch just this pet, concurrent
+			// lookups are coalesced into one PetStorePetService multi-get call
+			pet = this.petStoreService.getPet(id);
+		} else {
+			try {
+				pet = this.sessionUser.getPets().get(id - 1);
+			} catch (Exception npe) {
+				this.sessionUser.getTelemetryClient().trackException(npe);
+			}
 		}
 
-		Pet pet = null;
-
-		try {
-			pet = this.sessionUser.getPets().get(id - 1);
-		} catch (Exception npe) {
-			this.sessionUser.getTelemetryClient().trackException(npe);
+		if (pet == null) {
 			pet = new Pet();
 		}
 
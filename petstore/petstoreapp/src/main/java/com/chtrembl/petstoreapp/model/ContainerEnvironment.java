@@ -51,6 +51,15 @@ public class ContainerEnvironment implements Serializable {
 	@Value("${petstore.service.pet.url:}")
 	private String petStorePetServiceURL;
 
+	@Value("${petstore.service.pet.batch-window-ms:5}")
+	private long petServiceBatchWindowMs;
+
+	@Value("${petstore.service.pet.batch-max-size:100}")
+	private int petServiceBatchMaxSize;
+
+	@Value("${petstore.service.catalog-format:full}")
+	private String catalogFormat;
+
 	@Value("${petstore.service.product.url:}")
 	private String petStoreProductServiceURL;
 
@@ -210,6 +219,37 @@ public class ContainerEnvironment implements Serializable {
 		return petStorePetServiceURL;
 	}
 
+	public String getCatalogFormat() {
+		return catalogFormat;
+	}
+
+	public void setCatalogFormat(String catalogFormat) {
+		this.catalogFormat = catalogFormat;
+	}
+
+	/**
+	 * Whether pet lists are requested in the dictionary-encoded ?format=normalized form
+	 */
+	public boolean isNormalizedCatalogFormat() {
+		return "normalized".equalsIgnoreCase(catalogFormat);
+	}
+
+	public long getPetServiceBatchWindowMs() {
+		return petServiceBatchWindowMs;
+	}
+
+	public void setPetServiceBatchWindowMs(long petServiceBatchWindowMs) {
+		this.petServiceBatchWindowMs = petServiceBatchWindowMs;
+	}
+
+	public int getPetServiceBatchMaxSize() {
+		return petServiceBatchMaxSize;
+	}
+
+	public void setPetServiceBatchMaxSize(int petServiceBatchMaxSize) {
+		this.petServiceBatchMaxSize = petServiceBatchMaxSize;
+	}
+
 	public String getPetStoreProductServiceURL() {
 		return petStoreProductServiceURL;
 	}
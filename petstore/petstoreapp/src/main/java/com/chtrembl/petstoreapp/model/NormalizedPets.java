@@ -0,0 +1,101 @@
+package com.chtrembl.petstoreapp.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Dictionary-encoded pet list (?format=normalized). Categories and tags are sent once and the
+ * pets built by {@link #toPets()} share those instances instead of each carrying copies.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NormalizedPets {
+	@JsonProperty("categories")
+	private List<Category> categories = new ArrayList<>();
+
+	@JsonProperty("tags")
+	private List<Tag> tags = new ArrayList<>();
+
+	@JsonProperty("items")
+	private List<Item> items = new ArrayList<>();
+
+	public List<Pet> toPets() {
+		Map<Long, Category> categoriesById = new HashMap<>();
+		for (Category category : this.categories) {
+			categoriesById.put(category.getId(), category);
+		}
+		Map<Long, Tag> tagsById = new HashMap<>();
+		for (Tag tag : this.tags) {
+			tagsById.put(tag.getId(), tag);
+		}
+
+		List<Pet> pets = new ArrayList<>(this.items.size());
+		for (Item item : this.items) {
+			Pet pet = new Pet();
+			pet.setId(item.id);
+			pet.setName(item.name);
+			pet.setPhotoURL(item.photoURL);
+			pet.setStatus(item.status);
+			pet.setCategory(item.categoryId != null ? categoriesById.get(item.categoryId) : null);
+			List<Tag> petTags = new ArrayList<>(item.tagIds.size());
+			for (Long tagId : item.tagIds) {
+				Tag tag = tagsById.get(tagId);
+				if (tag != null) {
+					petTags.add(tag);
+				}
+			}
+			pet.setTags(petTags);
+			pets.add(pet);
+		}
+		return pets;
+	}
+
+	public List<Category> getCategories() {
+		return categories;
+	}
+
+	public void setCategories(List<Category> categories) {
+		this.categories = categories;
+	}
+
+	public List<Tag> getTags() {
+		return tags;
+	}
+
+	public void setTags(List<Tag> tags) {
+		this.tags = tags;
+	}
+
+	public List<Item> getItems() {
+		return items;
+	}
+
+	public void setItems(List<Item> items) {
+		this.items = items;
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class Item {
+		@JsonProperty("id")
+		private Long id;
+
+		@JsonProperty("name")
+		private String name;
+
+		@JsonProperty("photoURL")
+		private String photoURL;
+
+		@JsonProperty("status")
+		private Pet.StatusEnum status;
+
+		@JsonProperty("categoryId")
+		private Long categoryId;
+
+		@JsonProperty("tagIds")
+		private List<Long> tagIds = new ArrayList<>();
+	}
+}
@@ -0,0 +1,46 @@
+package com.chtrembl.petstoreapp.model;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Entry of the PetStorePetService multi-get response, one per requested id
+ */
+@SuppressWarnings("serial")
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PetLookup implements Serializable {
+	@JsonProperty("id")
+	private Long id;
+
+	@JsonProperty("found")
+	private boolean found;
+
+	@JsonProperty("pet")
+	private Pet pet;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public boolean isFound() {
+		return found;
+	}
+
+	public void setFound(boolean found) {
+		this.found = found;
+	}
+
+	public Pet getPet() {
+		return pet;
+	}
+
+	public void setPet(Pet pet) {
+		this.pet = pet;
+	}
+}
@@ -0,0 +1,35 @@
+package com.chtrembl.petstoreapp.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * PetStoreProductService faceted search response; the facet counts are not used by the views
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductSearchResult {
+	@JsonProperty("total")
+	private int total;
+
+	@JsonProperty("items")
+	private List<Product> items = new ArrayList<>();
+
+	public int getTotal() {
+		return total;
+	}
+
+	public void setTotal(int total) {
+		this.total = total;
+	}
+
+	public List<Product> getItems() {
+		return items;
+	}
+
+	public void setItems(List<Product> items) {
+		this.items = items;
+	}
+}
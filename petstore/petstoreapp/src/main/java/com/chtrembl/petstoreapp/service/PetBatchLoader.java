@@ -0,0 +1,134 @@
+package com.chtrembl.petstoreapp.service;
+
+import com.chtrembl.petstoreapp.model.Pet;
+import com.chtrembl.petstoreapp.model.PetLookup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces single pet lookups into PetStorePetService multi-get calls. The first lookup opens a
+ * short window; every lookup arriving before it closes (or until the batch is full) is resolved by
+ * the same GET /pet?ids=... request, and concurrent lookups of the same id share one future.
+ *
+ * A batch is sent from the loader's thread when its window closes, or from the calling thread whose
+ * lookup filled it. Either way it serves many callers, so their per-request headers are not
+ * forwarded.
+ */
+class PetBatchLoader {
+	private static final Logger logger = LoggerFactory.getLogger(PetBatchLoader.class);
+
+	private final WebClient petServiceWebClient;
+	private final long windowMs;
+	private final int maxBatchSize;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "pet-batch-loader");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private Map<Long, CompletableFuture<Pet>> pending = new LinkedHashMap<>();
+	private ScheduledFuture<?> windowTimer;
+
+	PetBatchLoader(WebClient petServiceWebClient, long windowMs, int maxBatchSize) {
+		this.petServiceWebClient = petServiceWebClient;
+		this.windowMs = Math.max(0, windowMs);
+		this.maxBatchSize = Math.max(1, maxBatchSize);
+	}
+
+	/**
+	 * @return future completed with the pet, or with null if the pet service does not know the id
+	 */
+	CompletableFuture<Pet> load(long petId) {
+		CompletableFuture<Pet> future;
+		Map<Long, CompletableFuture<Pet>> full = null;
+		synchronized (this) {
+			future = this.pending.get(petId);
+			if (future != null) {
+				return future;
+			}
+			future = new CompletableFuture<>();
+			this.pending.put(petId, future);
+			if (this.pending.size() >= this.maxBatchSize) {
+				full = drain();
+			} else if (this.pending.size() == 1) {
+				Map<Long, CompletableFuture<Pet>> batch = this.pending;
+				this.windowTimer = this.scheduler.schedule(() -> flush(batch), this.windowMs, TimeUnit.MILLISECONDS);
+			}
+		}
+		if (full != null) {
+			dispatch(full);
+		}
+		return future;
+	}
+
+	void shutdown() {
+		this.scheduler.shutdownNow();
+	}
+
+	private void flush(Map<Long, CompletableFuture<Pet>> batch) {
+		synchronized (this) {
+			if (this.pending != batch) {
+				// the batch filled up and was sent while this timer was already running
+				return;
+			}
+			drain();
+		}
+		dispatch(batch);
+	}
+
+	/**
+	 * Takes the pending batch and cancels its window timer, so the timer cannot cut the next
+	 * batch's window short. Callers hold the lock.
+	 */
+	private Map<Long, CompletableFuture<Pet>> drain() {
+		Map<Long, CompletableFuture<Pet>> batch = this.pending;
+		this.pending = new LinkedHashMap<>();
+		if (this.windowTimer != null) {
+			this.windowTimer.cancel(false);
+			this.windowTimer = null;
+		}
+		return batch;
+	}
+
+	private void dispatch(Map<Long, CompletableFuture<Pet>> batch) {
+		List<Long> ids = new ArrayList<>(batch.keySet());
+		String joinedIds = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+		logger.debug("Fetching {} pets in one batch", ids.size());
+
+		this.petServiceWebClient.get()
+				.uri(uriBuilder -> uriBuilder.path("petstorepetservice/v2/pet").queryParam("ids", joinedIds).build())
+				.accept(MediaType.APPLICATION_JSON)
+				.header("Cache-Control", "no-cache")
+				.retrieve()
+				.bodyToMono(new ParameterizedTypeReference<List<PetLookup>>() {
+				})
+				.subscribe(lookups -> {
+					for (PetLookup lookup : lookups) {
+						CompletableFuture<Pet> future = batch.get(lookup.getId());
+						if (future != null) {
+							future.complete(lookup.isFound() ? lookup.getPet() : null);
+						}
+					}
+				}, error -> {
+					logger.warn("Batch lookup of {} pets failed: {}", ids.size(), error.getMessage());
+					batch.values().forEach(future -> future.completeExceptionally(error));
+				}, () -> {
+					// ids the service left out (or an empty body) are treated as misses
+					batch.values().forEach(future -> future.complete(null));
+				});
+	}
+}
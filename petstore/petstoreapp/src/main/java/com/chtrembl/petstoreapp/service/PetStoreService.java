@@ -11,6 +11,8 @@ import java.util.List;
 public interface PetStoreService {
 	Collection<Pet> getPets(String category);
 
+	Pet getPet(long petId);
+
 	Collection<Product> getProducts(String category, List<Tag> tags) throws Exception;
 
 	void updateOrder(long productId, int quantity, boolean completeOrder);
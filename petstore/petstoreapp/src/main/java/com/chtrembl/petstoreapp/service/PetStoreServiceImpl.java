@@ -6,9 +6,11 @@ package com.chtrembl.petstoreapp.service;
 
 import com.chtrembl.petstoreapp.model.Category;
 import com.chtrembl.petstoreapp.model.ContainerEnvironment;
+import com.chtrembl.petstoreapp.model.NormalizedPets;
 import com.chtrembl.petstoreapp.model.Order;
 import com.chtrembl.petstoreapp.model.Pet;
 import com.chtrembl.petstoreapp.model.Product;
+import com.chtrembl.petstoreapp.model.ProductSearchResult;
 import com.chtrembl.petstoreapp.model.Tag;
 import com.chtrembl.petstoreapp.model.User;
 import com.chtrembl.petstoreapp.model.WebRequest;
@@ -28,9 +30,11 @@ import org.springframework.web.reactive.function.client.WebClientException;
 import reactor.core.publisher.Mono;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -48,6 +52,8 @@ public class PetStoreServiceImpl implements PetStoreService {
 
 	private WebClient azureFunctionClient = null;
 
+	private PetBatchLoader petBatchLoader = null;
+
 	public PetStoreServiceImpl(User sessionUser, ContainerEnvironment containerEnvironment, WebRequest webRequest) {
 		this.sessionUser = sessionUser;
 		this.containerEnvironment = containerEnvironment;
@@ -65,6 +71,14 @@ public class PetStoreServiceImpl implements PetStoreService {
 				.build();
 		this.azureFunctionClient = WebClient.builder().baseUrl(this.containerEnvironment.getAzureFunctionURL())
 				.build();
+		this.petBatchLoader = new PetBatchLoader(this.petServiceWebClient,
+				this.containerEnvironment.getPetServiceBatchWindowMs(),
+				this.containerEnvironment.getPetServiceBatchMaxSize());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		this.petBatchLoader.shutdown();
 	}
 
 	@Override
@@ -77,13 +91,17 @@ public class PetStoreServiceImpl implements PetStoreService {
 				this.sessionUser.getCustomEventProperties(), null);
 		try {
 			Consumer<HttpHeaders> consumer = it -> it.addAll(this.webRequest.getHeaders());
-			pets = this.petServiceWebClient.get().uri("petstorepetservice/v2/pet/findByStatus?status=available")
+			boolean normalized = this.containerEnvironment.isNormalizedCatalogFormat();
+			WebClient.ResponseSpec response = this.petServiceWebClient.get()
+					.uri("petstorepetservice/v2/pet/findByStatus?status=available" + (normalized ? "&format=normalized" : ""))
 					.accept(MediaType.APPLICATION_JSON)
 					.headers(consumer)
 					.header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
 					.header("Cache-Control", "no-cache")
-					.retrieve()
-					.bodyToMono(new ParameterizedTypeReference<List<Pet>>() {
+					.retrieve();
+			pets = normalized
+					? response.bodyToMono(NormalizedPets.class).map(NormalizedPets::toPets).block()
+					: response.bodyToMono(new ParameterizedTypeReference<List<Pet>>() {
 					}).block();
 
 			// use this for look up on details page, intentionally avoiding spring cache to
@@ -121,21 +139,50 @@ public class PetStoreServiceImpl implements PetStoreService {
 		return pets;
 	}
 
+	/**
+	 * Single pet lookup; concurrent lookups are coalesced into one PetStorePetService multi-get
+	 * call by {@link PetBatchLoader}. Returns null if the pet does not exist or the call failed.
+	 */
+	@Override
+	public Pet getPet(long petId) {
+		this.sessionUser.getTelemetryClient().trackEvent(
+				String.format("PetStoreApp user %s is requesting to retrieve pet %d from the PetStorePetService",
+						this.sessionUser.getName(), petId),
+				this.sessionUser.getCustomEventProperties(), null);
+
+		try {
+			return this.petBatchLoader.load(petId).get(10, TimeUnit.SECONDS);
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			this.sessionUser.getTelemetryClient().trackException(e);
+			logger.warn(e.getMessage());
+		}
+		return null;
+	}
+
 	@Override
 	public Collection<Product> getProducts(String category, List<Tag> tags) {
 		List<Product> products = new ArrayList<>();
 
 		try {
 			Consumer<HttpHeaders> consumer = it -> it.addAll(this.webRequest.getHeaders());
-			products = this.productServiceWebClient.get()
-					.uri("petstoreproductservice/v2/product/findByStatus?status=available")
+			// only the products rendered for this category and size are requested; the
+			// product service answers the facet query from its bitmap index
+			String size = tags.stream().anyMatch(t -> t.getName().equals("large")) ? "large" : "small";
+			ProductSearchResult result = this.productServiceWebClient.get()
+					.uri(uriBuilder -> uriBuilder.path("petstoreproductservice/v2/product/search")
+							.queryParam("status", "available")
+							.queryParam("category", "{category}")
+							.queryParam("tags", size)
+							.build(category))
 					.accept(MediaType.APPLICATION_JSON)
 					.headers(consumer)
 					.header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
 					.header("Cache-Control", "no-cache")
 					.retrieve()
-					.bodyToMono(new ParameterizedTypeReference<List<Product>>() {
-					}).block();
+					.bodyToMono(ProductSearchResult.class).block();
+			products = result != null ? result.getItems() : new ArrayList<>();
 
 			// use this for look up on details page, intentionally avoiding spring cache to
 			// ensure service calls are made each for each browser session
@@ -143,15 +190,6 @@ public class PetStoreServiceImpl implements PetStoreService {
 			// world production scenario)
 			this.sessionUser.setProducts(products);
 
-			// filter this specific request per category
-			if (tags.stream().anyMatch(t -> t.getName().equals("large"))) {
-				products = products.stream().filter(product -> category.equals(product.getCategory().getName())
-						&& product.getTags().toString().contains("large")).collect(Collectors.toList());
-			} else {
-
-				products = products.stream().filter(product -> category.equals(product.getCategory().getName())
-						&& product.getTags().toString().contains("small")).collect(Collectors.toList());
-			}
 			return products;
 		} catch (
 
@@ -0,0 +1,100 @@
+package com.chtrembl.petstore.order.service;
+
+import com.chtrembl.petstore.order.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request product work of an order update (validate every line, then enrich it with the
+ * catalog name and photo) against {@link ProductIndex}, and against the previous path, which
+ * checked a {@code List<Long>} of available ids and searched the product list once per line. The
+ * index lookups should cost the same at every catalog size; building the index is paid once per
+ * catalog version and is measured separately.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="ProductIndexBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductIndexBenchmark {
+
+    private static final int ORDER_LINES = 5;
+
+    @Param({"100", "10000", "1000000"})
+    private int products;
+
+    private List<Product> catalog;
+    private List<Long> availableProductIds;
+    private ProductIndex index;
+    private List<Product> lines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = new ArrayList<>(products);
+        availableProductIds = new ArrayList<>(products);
+        for (long id = 1; id <= products; id++) {
+            catalog.add(Product.builder().id(id).name("Product " + id).photoURL("https://example.org/" + id).build());
+            availableProductIds.add(id);
+        }
+        index = ProductIndex.of(catalog);
+
+        // spread over the catalog, so the list search pays for the tail as a real cart would
+        lines = new ArrayList<>(ORDER_LINES);
+        for (int line = 1; line <= ORDER_LINES; line++) {
+            lines.add(Product.builder().id((long) products * line / ORDER_LINES).quantity(1).build());
+        }
+    }
+
+    @Benchmark
+    public void validateAndEnrichIndexed(Blackhole blackhole) {
+        for (Product line : lines) {
+            blackhole.consume(index.contains(line.getId()));
+        }
+        for (Product line : lines) {
+            Product product = index.get(line.getId());
+            line.setName(product.getName());
+            line.setPhotoURL(product.getPhotoURL());
+        }
+        blackhole.consume(lines);
+    }
+
+    @Benchmark
+    public void validateAndEnrichList(Blackhole blackhole) {
+        for (Product line : lines) {
+            blackhole.consume(availableProductIds.contains(line.getId()));
+        }
+        for (Product line : lines) {
+            Product product = catalog.stream()
+                    .filter(p -> p.getId().equals(line.getId()))
+                    .findFirst()
+                    .orElseThrow();
+            line.setName(product.getName());
+            line.setPhotoURL(product.getPhotoURL());
+        }
+        blackhole.consume(lines);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ProductIndex buildIndex() {
+        return ProductIndex.of(catalog);
+    }
+}
@@ -0,0 +1,29 @@
+package com.chtrembl.petstore.order.config;
+
+import com.chtrembl.petstore.order.model.Order;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JSON view of the model for the web layer. Spring Data Cosmos serializes entities with its own
+ * mapper (no {@code cosmosObjectMapper} bean is defined), so mix-ins registered here change API
+ * requests and responses only, never the stored documents.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * The {@code _etag} of an {@link Order} guards conditional replaces and means nothing to
+     * clients: it is neither written to responses nor accepted from requests.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer orderWebViewCustomizer() {
+        return builder -> builder.mixIn(Order.class, OrderWebView.class);
+    }
+
+    @JsonIgnoreProperties("_etag")
+    private abstract static class OrderWebView {
+    }
+}
@@ -1,7 +1,7 @@
 package com.chtrembl.petstore.order.controller;
 
 import com.chtrembl.petstore.order.model.ContainerEnvironment;
-import com.chtrembl.petstore.order.service.CacheService;
+import com.chtrembl.petstore.order.service.ProductCatalogHolder;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -23,7 +23,7 @@ import java.util.Map;
 public class InfoController {
 
     private final ContainerEnvironment containerEnvironment;
-    private final CacheService cacheService;
+    private final ProductCatalogHolder productCatalogHolder;
 
     @Operation(
             summary = "Health check",
@@ -57,10 +57,23 @@ public class InfoController {
         Map<String, String> response = Map.of(
                 "service", "order service",
                 "version", containerEnvironment.getAppVersion(),
-                "container", containerEnvironment.getContainerHostName(),
-                "ordersCacheSize", String.valueOf(cacheService.getOrdersCacheSize())
+                "container", containerEnvironment.getContainerHostName()
         );
 
         return ResponseEntity.ok(response);
     }
+
+    @Operation(
+            summary = "Cache statistics",
+            description = "Returns size, version, age, fetch and watch counters for the available products held for "
+                    + "order validation"
+    )
+    @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully",
+            content = @Content(mediaType = "application/json"))
+    @GetMapping("/store/info/caches")
+    public ResponseEntity<Map<String, Map<String, Object>>> cacheStatistics() {
+        log.info("Incoming GET request to /petstoreorderservice/v1/store/info/caches");
+
+        return ResponseEntity.ok(Map.of("availableProducts", productCatalogHolder.getStatistics()));
+    }
 }
\ No newline at end of file
@@ -1,9 +1,7 @@
 package com.chtrembl.petstore.order.controller;
 
 import com.chtrembl.petstore.order.model.Order;
-import com.chtrembl.petstore.order.model.Product;
 import com.chtrembl.petstore.order.service.OrderService;
-import com.chtrembl.petstore.order.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -25,8 +23,6 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/petstoreorderservice/v2")
 @Slf4j
@@ -36,7 +32,6 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
-    private final ProductService productService;
 
     @Operation(
             summary = "Place an order for a product",
@@ -58,12 +53,9 @@ public class OrderController {
         log.info("Incoming POST request to /petstoreorderservice/v2/store/order with order: {}", order);
 
 //        Order updatedOrder = null;
+        // lines are enriched with product details as they are written
         Order updatedOrder = orderService.updateOrder(order);
 
-        // Enrich order with product details from product service
-        List<Product> availableProducts = productService.getAvailableProducts();
-        orderService.enrichOrderWithProductDetails(updatedOrder, availableProducts);
-        
         log.info("Successfully processed order: {}", updatedOrder.getId());
 
         return ResponseEntity.ok(updatedOrder);
@@ -71,7 +63,7 @@ public class OrderController {
 
     @Operation(
             summary = "Find order by ID",
-            description = "Returns a single order by its ID with enriched product information"
+            description = "Returns a single order by its ID with the product information stored on its lines"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order found successfully",
@@ -89,12 +81,9 @@ public class OrderController {
 
         log.info("Incoming GET request to /petstoreorderservice/v2/store/order/{}", orderId);
 //        Order order = null;
+        // product details were stored on the lines when they were added; a single point read
         Order order = orderService.getOrderById(orderId);
 
-        // Enrich order with product details from product service
-        List<Product> availableProducts = productService.getAvailableProducts();
-        orderService.enrichOrderWithProductDetails(order, availableProducts);
-
         log.info("Successfully retrieved order: {}", order);
 
         return ResponseEntity.ok(order);
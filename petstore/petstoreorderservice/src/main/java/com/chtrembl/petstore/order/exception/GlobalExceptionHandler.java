@@ -101,6 +101,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
+    @ExceptionHandler(OrderConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleOrderConflictException(
+            OrderConflictException ex) {
+
+        Map<String, Object> response = new HashMap<>();
+        response.put(ERROR, "Order update conflict");
+        response.put(MESSAGE, ex.getMessage());
+
+        log.warn("Order update conflict: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
 
@@ -0,0 +1,15 @@
+package com.chtrembl.petstore.order.exception;
+
+/**
+ * Exception thrown when an order update keeps losing to concurrent updates of the same order
+ */
+public class OrderConflictException extends RuntimeException {
+
+    public OrderConflictException(String message) {
+        super(message);
+    }
+
+    public OrderConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
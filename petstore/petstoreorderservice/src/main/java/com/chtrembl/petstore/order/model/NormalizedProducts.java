@@ -0,0 +1,20 @@
+package com.chtrembl.petstore.order.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Product service response for {@code ?format=normalized}. Orders only use id, name and photo, so
+ * the category and tag dictionaries (and each item's references into them) are skipped on parse.
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NormalizedProducts {
+
+	private List<Product> items = new ArrayList<>();
+}
@@ -14,6 +14,7 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,6 +40,15 @@ public class Order {
 	@Id
 	private String id;
 
+	/**
+	 * Cosmos {@code _etag} of the stored document; replaces are conditional on it, so it must stay
+	 * in the document Cosmos serializes. API requests and responses leave it out
+	 * ({@link com.chtrembl.petstore.order.config.JacksonConfig}).
+	 */
+	@Version
+	@Schema(hidden = true)
+	private String _etag;
+
 	@Size(max = 255, message = "Email must not exceed 255 characters")
 	@Schema(description = "Customer email address",
 			example = "customer@example.com")
@@ -0,0 +1,31 @@
+package com.chtrembl.petstore.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Product service {@code /product/watch} response.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChanges {
+
+	private String epoch;
+
+	private long version;
+
+	private boolean reset;
+
+	private List<Product> changed = new ArrayList<>();
+
+	private List<Long> removed = new ArrayList<>();
+
+	public boolean isEmpty() {
+		return !reset && (changed == null || changed.isEmpty()) && (removed == null || removed.isEmpty());
+	}
+}
@@ -1,10 +1,19 @@
 package com.chtrembl.petstore.order.repository;
 
 import com.azure.spring.data.cosmos.repository.CosmosRepository;
+import com.azure.spring.data.cosmos.repository.Query;
 import com.chtrembl.petstore.order.model.Order;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface OrderRepository extends CosmosRepository<Order, String> {
-    // Custom query methods can be added here
+
+    /**
+     * Orders with at least one line for any of the given products.
+     */
+    @Query("SELECT * FROM c WHERE EXISTS(SELECT VALUE p FROM p IN c.products WHERE ARRAY_CONTAINS(@productIds, p.id))")
+    List<Order> findByProductIds(@Param("productIds") List<Long> productIds);
 }
@@ -0,0 +1,101 @@
+package com.chtrembl.petstore.order.service;
+
+import com.chtrembl.petstore.order.model.Order;
+import com.chtrembl.petstore.order.model.Product;
+import com.chtrembl.petstore.order.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Order lines carry the product name and photo from the moment they were added. When a refreshed
+ * catalog changes either of them for some products, this rewrites the affected lines: the orders
+ * holding those products are found with one query per chunk of ids and replaced, conditionally on
+ * their {@code _etag}, only if a line actually changed. Work runs on its own thread so the catalog
+ * loader is never held up.
+ */
+@Service
+@Slf4j
+public class OrderLineReconciler {
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final ExecutorService executor;
+
+    @Value("${petstore.order.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${petstore.order.reconcile.chunk-size:100}")
+    private int chunkSize;
+
+    public OrderLineReconciler(OrderRepository orderRepository, OrderService orderService) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-line-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener
+    public void onCatalogRefreshed(ProductCatalogRefreshedEvent event) {
+        // the first fetch has nothing to compare against; lines written since startup used it already
+        if (!enabled || event.getPrevious() == null) {
+            return;
+        }
+
+        List<Long> changed = changedProductIds(event.getPrevious(), event.getCurrent());
+        if (!changed.isEmpty()) {
+            executor.execute(() -> reconcile(changed, event.getCurrent()));
+        }
+    }
+
+    void reconcile(List<Long> productIds, ProductIndex availableProducts) {
+        long start = System.currentTimeMillis();
+        int updated = 0;
+        try {
+            for (int from = 0; from < productIds.size(); from += chunkSize) {
+                List<Long> chunk = productIds.subList(from, Math.min(from + chunkSize, productIds.size()));
+                for (Order order : orderRepository.findByProductIds(chunk)) {
+                    if (orderService.refreshOrderLines(order, availableProducts)) {
+                        updated++;
+                    }
+                }
+            }
+            log.info("Reconciled order lines for {} changed products, updated {} orders in {}ms",
+                    productIds.size(), updated, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to reconcile order lines after {} updated orders: {}", updated, e.getMessage(), e);
+        }
+    }
+
+    private static List<Long> changedProductIds(ProductIndex previous, ProductIndex current) {
+        List<Long> changed = new ArrayList<>();
+        for (Product product : current.getProducts()) {
+            if (product.getId() == null) {
+                continue;
+            }
+            Product before = previous.get(product.getId());
+            if (before == null
+                    || !Objects.equals(before.getName(), product.getName())
+                    || !Objects.equals(before.getPhotoURL(), product.getPhotoURL())) {
+                changed.add(product.getId());
+            }
+        }
+        return changed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,15 +1,21 @@
 package com.chtrembl.petstore.order.service;
 
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.spring.data.cosmos.core.CosmosTemplate;
+import com.azure.spring.data.cosmos.exception.CosmosAccessException;
+import com.chtrembl.petstore.order.exception.OrderConflictException;
 import com.chtrembl.petstore.order.exception.OrderNotFoundException;
 import com.chtrembl.petstore.order.model.Order;
 import com.chtrembl.petstore.order.model.Product;
 import com.chtrembl.petstore.order.repository.OrderRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -17,21 +23,27 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OrderService {
 
-    private static final String ORDERS = "orders";
+    private static final int CONFLICT = 409;
+    private static final int PRECONDITION_FAILED = 412;
 
     @Autowired
-    private final ProductService productService;
+    private final ProductCatalogHolder productCatalogHolder;
 
     @Autowired
     private OrderRepository orderRepository;
 
-    public OrderService(ProductService productService) {
-        this.productService = productService;
+    @Autowired
+    private CosmosTemplate cosmosTemplate;
+
+    @Value("${petstore.order.update.max-attempts:5}")
+    private int maxUpdateAttempts;
+
+    public OrderService(ProductCatalogHolder productCatalogHolder) {
+        this.productCatalogHolder = productCatalogHolder;
     }
 
-    //    @Cacheable(ORDERS)
     public Order createOrder(String orderId) {
-        log.info("Creating new order with id: {} and caching it", orderId);
+        log.info("Creating new order with id: {}", orderId);
         return Order.builder()
                 .id(orderId)
                 .products(new ArrayList<>())
@@ -81,26 +93,87 @@ public class OrderService {
         Order orderById = getOrderByOrderId(orderId);
         if (orderById != null) return orderById;
 
-        // Create new order if not found
+        // Create new order if not found; insert rather than upsert so a concurrent create of the
+        // same order is not overwritten (the partition key is taken from the document)
         log.info("Creating new order for update: {}", orderId);
-        Order newOrder = createOrder(orderId);
-        orderRepository.save(newOrder);
-
-        return newOrder;
+        try {
+            return cosmosTemplate.insert(createOrder(orderId), (PartitionKey) null);
+        } catch (CosmosAccessException e) {
+            if (!hasStatus(e, CONFLICT)) {
+                throw e;
+            }
+            log.info("Order {} was created concurrently, using the stored one", orderId);
+            return getOrderById(orderId);
+        }
     }
 
+    /**
+     * Applies the update to the stored order and replaces it conditionally on the {@code _etag}
+     * that was read. If another update got there first, the order is read again and the same
+     * delta re-applied, up to {@code petstore.order.update.max-attempts} times.
+     */
     public Order updateOrder(Order order) {
         log.info("Updating order: {}", order.getId());
 
         // Validate products exist before processing order
+        ProductIndex availableProducts = ProductIndex.empty();
         if (order.getProducts() != null && !order.getProducts().isEmpty()) {
-            List<Product> availableProducts = productService.getAvailableProducts();
+            availableProducts = productCatalogHolder.getProductIndex();
             validateProductsExist(order.getProducts(), availableProducts);
         }
 
-        // Use getOrCreateOrder for updates (allows creation)
-        Order existingOrder = getOrCreateOrder(order.getId());
+        for (int attempt = 1; ; attempt++) {
+            // Use getOrCreateOrder for updates (allows creation)
+            Order existingOrder = getOrCreateOrder(order.getId());
+            applyUpdate(existingOrder, order, availableProducts);
+
+            try {
+                // Explicitly update cosmos DB
+                return orderRepository.save(existingOrder);
+            } catch (CosmosAccessException e) {
+                if (!hasStatus(e, PRECONDITION_FAILED)) {
+                    throw e;
+                }
+                if (attempt >= maxUpdateAttempts) {
+                    throw new OrderConflictException("Order " + order.getId() + " is being updated concurrently, "
+                            + "gave up after " + attempt + " attempts", e);
+                }
+                log.info("Order {} changed since it was read, re-applying update (attempt {})",
+                        order.getId(), attempt + 1);
+            }
+        }
+    }
+
+    /**
+     * Re-enriches the lines of a stored order and replaces it if anything changed, re-reading the
+     * order when a concurrent update wins.
+     *
+     * @return whether the order was updated
+     */
+    public boolean refreshOrderLines(Order order, ProductIndex availableProducts) {
+        Order current = order;
+        for (int attempt = 1; attempt <= maxUpdateAttempts; attempt++) {
+            if (enrichOrderWithProductDetails(current, availableProducts) == 0) {
+                return false;
+            }
+            try {
+                orderRepository.save(current);
+                return true;
+            } catch (CosmosAccessException e) {
+                if (!hasStatus(e, PRECONDITION_FAILED)) {
+                    throw e;
+                }
+                current = getOrderByOrderId(order.getId());
+                if (current == null) {
+                    return false;
+                }
+            }
+        }
+        throw new OrderConflictException("Order " + order.getId() + " is being updated concurrently, "
+                + "gave up refreshing its lines after " + maxUpdateAttempts + " attempts");
+    }
 
+    private void applyUpdate(Order existingOrder, Order order, ProductIndex availableProducts) {
         // Update basic fields
         existingOrder.setEmail(order.getEmail());
 
@@ -117,23 +190,22 @@ public class OrderService {
             existingOrder.setComplete(true);
         } else {
             existingOrder.setComplete(isComplete != null ? isComplete : false);
-            updateOrderProducts(existingOrder, order.getProducts());
+            updateOrderProducts(existingOrder, order.getProducts(), availableProducts);
         }
+    }
 
-        // Explicitly update cosmos DB
-        orderRepository.save(existingOrder);
-
-        return existingOrder;
+    private static boolean hasStatus(CosmosAccessException e, int statusCode) {
+        return e.getCosmosException() != null && e.getCosmosException().getStatusCode() == statusCode;
     }
 
     /**
-     * Validates that all products in the order exist in the available products list
+     * Validates that all products in the order exist in the available products
      *
      * @param orderProducts List of products from the order
-     * @param availableProducts List of available products from Product Service
+     * @param availableProducts Available products from Product Service, indexed by id
      * @throws IllegalArgumentException if any product is not found
      */
-    private void validateProductsExist(List<Product> orderProducts, List<Product> availableProducts) {
+    private void validateProductsExist(List<Product> orderProducts, ProductIndex availableProducts) {
         if (orderProducts == null || orderProducts.isEmpty()) {
             return;
         }
@@ -143,13 +215,8 @@ public class OrderService {
                 .filter(id -> id != null)
                 .collect(Collectors.toList());
 
-        List<Long> availableProductIds = availableProducts.stream()
-                .map(Product::getId)
-                .filter(id -> id != null)
-                .collect(Collectors.toList());
-
         List<Long> missingProductIds = requestedProductIds.stream()
-                .filter(id -> !availableProductIds.contains(id))
+                .filter(id -> !availableProducts.contains(id))
                 .collect(Collectors.toList());
 
         if (!missingProductIds.isEmpty()) {
@@ -162,22 +229,29 @@ public class OrderService {
         log.debug("Product validation passed for {} products", requestedProductIds.size());
     }
 
-    private void updateOrderProducts(Order existingOrder, List<Product> incomingProducts) {
+    /**
+     * Applies the incoming lines. Lines are enriched with the catalog name and photo as they are
+     * written, so reading an order never needs the product service.
+     */
+    private void updateOrderProducts(Order existingOrder, List<Product> incomingProducts,
+                                     ProductIndex availableProducts) {
         if (incomingProducts == null || incomingProducts.isEmpty()) {
             return;
         }
 
         // Single product update (add/remove/update from product page)
         if (incomingProducts.size() == 1) {
-            handleSingleProductUpdate(existingOrder, incomingProducts.stream().findFirst().get());
+            handleSingleProductUpdate(existingOrder, incomingProducts.stream().findFirst().get(), availableProducts);
         }
         // Multiple products (cart update)
         else {
             existingOrder.setProducts(new ArrayList<>(incomingProducts));
+            enrichOrderWithProductDetails(existingOrder, availableProducts);
         }
     }
 
-    private void handleSingleProductUpdate(Order existingOrder, Product incomingProduct) {
+    private void handleSingleProductUpdate(Order existingOrder, Product incomingProduct,
+                                           ProductIndex availableProducts) {
         List<Product> existingProducts = existingOrder.getProducts();
         if (existingProducts == null) {
             existingProducts = new ArrayList<>();
@@ -218,11 +292,12 @@ public class OrderService {
             // Add new product only if quantity is positive
             if (quantity > 0) {
                 int finalQuantity = Math.min(quantity, 10); // Ensure max limit
+                Product catalogProduct = availableProducts.get(incomingProduct.getId());
                 existingProducts.add(Product.builder()
                         .id(incomingProduct.getId())
                         .quantity(finalQuantity)
-                        .name(incomingProduct.getName())
-                        .photoURL(incomingProduct.getPhotoURL())
+                        .name(catalogProduct != null ? catalogProduct.getName() : incomingProduct.getName())
+                        .photoURL(catalogProduct != null ? catalogProduct.getPhotoURL() : incomingProduct.getPhotoURL())
                         .build());
 
                 log.info("Added new product {} with quantity {} to order {}",
@@ -239,37 +314,44 @@ public class OrderService {
         }
     }
 
-    public void enrichOrderWithProductDetails(Order order, List<Product> availableProducts) {
+    /**
+     * Copies the catalog name and photo onto the order's lines.
+     *
+     * @return the number of lines whose name or photo changed
+     */
+    public int enrichOrderWithProductDetails(Order order, ProductIndex availableProducts) {
         if (order.getProducts() == null || availableProducts == null) {
             log.warn("Cannot enrich order: order.products={}, availableProducts={}",
                     order.getProducts(), availableProducts != null ? availableProducts.size() : "null");
-            return;
+            return 0;
         }
 
-        log.info("Enriching order {} with {} available products",
+        log.debug("Enriching order {} with {} available products",
                 order.getId(), availableProducts.size());
 
+        int changed = 0;
         for (Product orderProduct : order.getProducts()) {
             String originalName = orderProduct.getName();
             String originalURL = orderProduct.getPhotoURL();
 
-            Optional<Product> foundProduct = availableProducts.stream()
-                    .filter(p -> p.getId().equals(orderProduct.getId()))
-                    .findFirst();
+            Product availableProduct = orderProduct.getId() != null
+                    ? availableProducts.get(orderProduct.getId()) : null;
 
-            if (foundProduct.isPresent()) {
-                Product availableProduct = foundProduct.get();
+            if (availableProduct == null) {
+                log.warn("Product with id {} not found in available products during enrichment",
+                        orderProduct.getId());
+            } else if (!Objects.equals(originalName, availableProduct.getName())
+                    || !Objects.equals(originalURL, availableProduct.getPhotoURL())) {
                 orderProduct.setName(availableProduct.getName());
                 orderProduct.setPhotoURL(availableProduct.getPhotoURL());
+                changed++;
 
                 log.info("Enriched product {}: '{}' -> '{}', URL: '{}' -> '{}'",
                         orderProduct.getId(), originalName, availableProduct.getName(),
                         originalURL, availableProduct.getPhotoURL());
-            } else {
-                log.warn("Product with id {} not found in available products during enrichment",
-                        orderProduct.getId());
             }
         }
+        return changed;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,322 @@
+package com.chtrembl.petstore.order.service;
+
+import com.chtrembl.petstore.order.model.Product;
+import com.chtrembl.petstore.order.model.ProductChanges;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the available products fetched from the product service, indexed by id once per fetch
+ * ({@link ProductIndex}).
+ * <p>
+ * All concurrent loads share one in-flight fetch. Once the catalog is older than
+ * {@code refresh-after-ms} it is refreshed in the background while callers keep getting the
+ * current copy; only a catalog older than {@code expire-after-ms} (or none at all) makes a caller
+ * wait for the fetch, and even then the stale copy is served if the fetch fails. Failed fetches
+ * are never stored, and the next attempt is delayed with exponential backoff. Changes pushed by
+ * {@link ProductCatalogWatcher} are applied to the held index without a fetch. Every new index,
+ * fetched or patched, is announced with a {@link ProductCatalogRefreshedEvent}.
+ * <p>
+ * The held index remembers the {@link ProductCatalogVersion} it was taken from. A fetch served by
+ * a product service instance that lags behind it (typically after a watch answer from a more
+ * current one) is discarded, as is a watch answer the held index already covers; the held index
+ * then counts as confirmed. Results without a version, or from another epoch, always replace it.
+ * <p>
+ * The statistics are also published as {@code petstore.product.catalog.*} meters.
+ */
+@Service
+@Slf4j
+public class ProductCatalogHolder implements MeterBinder {
+
+    private final ProductService productService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService loader;
+    private final AtomicReference<CompletableFuture<Snapshot>> inFlight = new AtomicReference<>();
+
+    @Value("${petstore.service.product.catalog.refresh-after-ms:300000}")
+    private long refreshAfterMs;
+
+    @Value("${petstore.service.product.catalog.expire-after-ms:3600000}")
+    private long expireAfterMs;
+
+    @Value("${petstore.service.product.catalog.load-timeout-ms:10000}")
+    private long loadTimeoutMs;
+
+    @Value("${petstore.service.product.catalog.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    private volatile Snapshot snapshot;
+    private volatile int consecutiveFailures;
+    private volatile long nextAttemptAt;
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong appliedChanges = new AtomicLong();
+    private final AtomicLong staleFetches = new AtomicLong();
+    private final AtomicLong staleChanges = new AtomicLong();
+    private volatile long lastLoadMs;
+
+    public ProductCatalogHolder(ProductService productService, ApplicationEventPublisher eventPublisher) {
+        this.productService = productService;
+        this.eventPublisher = eventPublisher;
+        this.loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-catalog-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Index of the available products; empty only if no fetch has ever succeeded.
+     */
+    public ProductIndex getProductIndex() {
+        Snapshot current = snapshot;
+        long age = current != null ? System.currentTimeMillis() - current.fetchedAt : Long.MAX_VALUE;
+
+        if (age < refreshAfterMs) {
+            return current.index;
+        }
+        CompletableFuture<Snapshot> refresh = refresh();
+        if (current != null && age < expireAfterMs) {
+            return current.index;
+        }
+
+        try {
+            return refresh.get(loadTimeoutMs, TimeUnit.MILLISECONDS).index;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            log.warn("Product catalog fetch did not finish within {}ms", loadTimeoutMs);
+        } catch (Exception e) {
+            log.warn("Product catalog fetch failed: {}", e.getMessage());
+        }
+        return current != null ? current.index : ProductIndex.empty();
+    }
+
+    /**
+     * Starts a background fetch unless one is already running or the backoff after a failure has
+     * not elapsed; returns the fetch that callers can wait on.
+     */
+    public CompletableFuture<Snapshot> refresh() {
+        CompletableFuture<Snapshot> running = inFlight.get();
+        if (running != null) {
+            return running;
+        }
+        if (System.currentTimeMillis() < nextAttemptAt) {
+            Snapshot current = snapshot;
+            return current != null ? CompletableFuture.completedFuture(current)
+                    : CompletableFuture.failedFuture(new IllegalStateException("product catalog fetch backing off"));
+        }
+
+        CompletableFuture<Snapshot> fetch = new CompletableFuture<>();
+        if (!inFlight.compareAndSet(null, fetch)) {
+            // read once: the winning fetch may complete and clear the reference in between
+            CompletableFuture<Snapshot> winner = inFlight.get();
+            return winner != null ? winner : refresh();
+        }
+        loader.execute(() -> load(fetch));
+        return fetch;
+    }
+
+    private void load(CompletableFuture<Snapshot> fetch) {
+        long start = System.currentTimeMillis();
+        try {
+            List<Product> products = new ArrayList<>();
+            ProductCatalogVersion version = productService.fetchAvailableProducts(products::add);
+            Snapshot previous = snapshot;
+            consecutiveFailures = 0;
+            nextAttemptAt = 0;
+            loads.incrementAndGet();
+            lastLoadMs = System.currentTimeMillis() - start;
+
+            if (previous != null && version != null && version.isOlderThan(previous.version)) {
+                Snapshot kept = new Snapshot(previous.index, previous.version, System.currentTimeMillis());
+                snapshot = kept;
+                staleFetches.incrementAndGet();
+                log.info("Discarded fetched product catalog version {}, holding newer version {}",
+                        version, previous.version);
+                inFlight.set(null);
+                fetch.complete(kept);
+                return;
+            }
+
+            ProductIndex index = ProductIndex.of(products);
+            Snapshot loaded = new Snapshot(index, version, System.currentTimeMillis());
+            snapshot = loaded;
+            log.info("Loaded {} available products (catalog version {}) in {}ms",
+                    index.size(), version, System.currentTimeMillis() - start);
+            inFlight.set(null);
+            fetch.complete(loaded);
+            eventPublisher.publishEvent(new ProductCatalogRefreshedEvent(previous != null ? previous.index : null, index));
+        } catch (Exception e) {
+            int failures = ++consecutiveFailures;
+            loadFailures.incrementAndGet();
+            long backoffMs = Math.min(maxBackoffMs, 1000L << Math.min(failures - 1, 16));
+            nextAttemptAt = System.currentTimeMillis() + backoffMs;
+            log.error("Failed to load available products (attempt {}), next attempt in {}ms: {}",
+                    failures, backoffMs, e.getMessage(), e);
+            inFlight.set(null);
+            fetch.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Applies a watch answer on the loader thread, so it is ordered with fetches: a fetch started
+     * before the change finishes first and is then patched, one started after already has it. A
+     * reset replaces the index; a delta before any fetch succeeded is dropped, since the first
+     * fetch will include it. An answer the held index already covers is dropped: patching an older
+     * delta over a newer fetch would bring back superseded products.
+     */
+    public void apply(ProductChanges changes) {
+        loader.execute(() -> {
+            Snapshot current = snapshot;
+            ProductCatalogVersion version = changes.getEpoch() != null
+                    ? new ProductCatalogVersion(changes.getEpoch(), changes.getVersion()) : null;
+            if (current != null && version != null && version.isCoveredBy(current.version)) {
+                snapshot = new Snapshot(current.index, current.version, System.currentTimeMillis());
+                staleChanges.incrementAndGet();
+                log.debug("Dropping product catalog version {}, holding version {}", version, current.version);
+                return;
+            }
+
+            List<Product> changed = changes.getChanged() != null ? changes.getChanged() : List.of();
+            ProductIndex index;
+            if (changes.isReset()) {
+                index = ProductIndex.of(changed);
+            } else if (current != null) {
+                index = patch(current.index, changed, changes.getRemoved() != null ? changes.getRemoved() : List.of());
+            } else {
+                log.debug("Dropping product catalog delta for version {}, nothing loaded yet", changes.getVersion());
+                return;
+            }
+
+            snapshot = new Snapshot(index, version, System.currentTimeMillis());
+            consecutiveFailures = 0;
+            nextAttemptAt = 0;
+            appliedChanges.incrementAndGet();
+            log.info("Applied product catalog version {}, {} available products", changes.getVersion(), index.size());
+            eventPublisher.publishEvent(new ProductCatalogRefreshedEvent(current != null ? current.index : null, index));
+        });
+    }
+
+    private static ProductIndex patch(ProductIndex index, List<Product> changed, List<Long> removed) {
+        Map<Long, Product> products = new LinkedHashMap<>(Math.max(16, (index.size() + changed.size()) * 4 / 3 + 1));
+        for (Product product : index.getProducts()) {
+            products.put(product.getId(), product);
+        }
+        for (Long productId : removed) {
+            products.remove(productId);
+        }
+        for (Product product : changed) {
+            products.put(product.getId(), product);
+        }
+        return ProductIndex.of(new ArrayList<>(products.values()));
+    }
+
+    /**
+     * Fetch and watch counters since startup, and the age of the held index.
+     */
+    public Map<String, Object> getStatistics() {
+        Snapshot current = snapshot;
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("size", current != null ? current.index.size() : 0);
+        statistics.put("version", current != null && current.version != null ? current.version.toString() : null);
+        statistics.put("ageMs", current != null ? System.currentTimeMillis() - current.fetchedAt : null);
+        statistics.put("loads", loads.get());
+        statistics.put("loadFailures", loadFailures.get());
+        statistics.put("consecutiveFailures", consecutiveFailures);
+        statistics.put("lastLoadMs", lastLoadMs);
+        statistics.put("appliedChanges", appliedChanges.get());
+        statistics.put("staleFetches", staleFetches.get());
+        statistics.put("staleChanges", staleChanges.get());
+        statistics.put("loadInFlight", inFlight.get() != null);
+        return statistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("petstore.product.catalog.size", this, holder -> {
+                    Snapshot current = holder.snapshot;
+                    return current != null ? current.index.size() : 0;
+                })
+                .description("Available products held for order validation")
+                .register(registry);
+        TimeGauge.builder("petstore.product.catalog.age", this, TimeUnit.MILLISECONDS, holder -> {
+                    Snapshot current = holder.snapshot;
+                    return current != null ? System.currentTimeMillis() - current.fetchedAt : Double.NaN;
+                })
+                .description("Time since the held products were last fetched or confirmed")
+                .register(registry);
+        TimeGauge.builder("petstore.product.catalog.last.load", this, TimeUnit.MILLISECONDS,
+                        holder -> holder.lastLoadMs)
+                .description("Duration of the last successful fetch")
+                .register(registry);
+        Gauge.builder("petstore.product.catalog.consecutive.failures", this, holder -> holder.consecutiveFailures)
+                .description("Failed fetches since the last successful one")
+                .register(registry);
+        Gauge.builder("petstore.product.catalog.load.in.flight", inFlight, running -> running.get() != null ? 1 : 0)
+                .description("Whether a fetch is running")
+                .register(registry);
+        counter(registry, "petstore.product.catalog.loads", loads, "Successful fetches");
+        counter(registry, "petstore.product.catalog.load.failures", loadFailures, "Failed fetches");
+        counter(registry, "petstore.product.catalog.applied.changes", appliedChanges, "Applied watch answers");
+        counter(registry, "petstore.product.catalog.stale.fetches", staleFetches,
+                "Fetches discarded for being older than the held version");
+        counter(registry, "petstore.product.catalog.stale.changes", staleChanges,
+                "Watch answers dropped for being covered by the held version");
+    }
+
+    private static void counter(MeterRegistry registry, String name, AtomicLong count, String description) {
+        FunctionCounter.builder(name, count, AtomicLong::get)
+                .description(description)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * One successful fetch, or a watch answer applied to one; {@code version} is null if the product
+     * service reported none.
+     */
+    public static final class Snapshot {
+        private final ProductIndex index;
+        private final ProductCatalogVersion version;
+        private final long fetchedAt;
+
+        private Snapshot(ProductIndex index, ProductCatalogVersion version, long fetchedAt) {
+            this.index = index;
+            this.version = version;
+            this.fetchedAt = fetchedAt;
+        }
+
+        public ProductIndex getIndex() {
+            return index;
+        }
+
+        public ProductCatalogVersion getVersion() {
+            return version;
+        }
+    }
+}
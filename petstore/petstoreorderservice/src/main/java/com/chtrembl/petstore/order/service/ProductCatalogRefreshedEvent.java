@@ -0,0 +1,27 @@
+package com.chtrembl.petstore.order.service;
+
+/**
+ * Published by {@link ProductCatalogHolder} whenever it holds a new index of the available products,
+ * fetched or patched from a catalog watch.
+ */
+public final class ProductCatalogRefreshedEvent {
+
+    private final ProductIndex previous;
+    private final ProductIndex current;
+
+    public ProductCatalogRefreshedEvent(ProductIndex previous, ProductIndex current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    /**
+     * The products held before this update, or null for the first one.
+     */
+    public ProductIndex getPrevious() {
+        return previous;
+    }
+
+    public ProductIndex getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,45 @@
+package com.chtrembl.petstore.order.service;
+
+/**
+ * Epoch and version of the product service catalog a fetch or watch answer was taken from, as
+ * reported by {@code /product/watch} and the {@code /product/export} headers. Versions only order
+ * within one epoch: a counter that starts over, or an instance counting locally, comes with another
+ * epoch, and versions of different epochs say nothing about each other.
+ */
+public final class ProductCatalogVersion {
+
+    private final String epoch;
+    private final long version;
+
+    public ProductCatalogVersion(String epoch, long version) {
+        this.epoch = epoch;
+        this.version = version;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Same epoch and a lower version: {@code other} already has every change this one has.
+     */
+    public boolean isOlderThan(ProductCatalogVersion other) {
+        return other != null && epoch.equals(other.epoch) && version < other.version;
+    }
+
+    /**
+     * Same epoch and at most {@code other}'s version.
+     */
+    public boolean isCoveredBy(ProductCatalogVersion other) {
+        return other != null && epoch.equals(other.epoch) && version <= other.version;
+    }
+
+    @Override
+    public String toString() {
+        return epoch + "/" + version;
+    }
+}
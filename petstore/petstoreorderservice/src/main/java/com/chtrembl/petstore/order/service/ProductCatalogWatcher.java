@@ -0,0 +1,138 @@
+package com.chtrembl.petstore.order.service;
+
+import com.chtrembl.petstore.order.model.ProductChanges;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Keeps the {@link ProductCatalogHolder} coherent with the product catalog by long-polling
+ * {@code /product/watch} for available products. Each answer arrives as soon as the catalog
+ * changes and is applied to the holder as it is: a delta patches the held index, a reset replaces
+ * it, and nothing is fetched a second time.
+ * <p>
+ * A reset answering a watch that already had a version (the service restarted, or lost the
+ * history) is expected to be rare; resets closer together than {@code min-reset-interval-ms} pause
+ * the watch so a misbehaving service is not asked for the full catalog in a loop.
+ * <p>
+ * Runs on a single daemon thread; the shared {@link RestTemplate} has no read timeout, so a
+ * parked poll is not cut short on the client side.
+ */
+@Service
+@Slf4j
+public class ProductCatalogWatcher {
+
+    private final RestTemplate restTemplate;
+    private final ProductCatalogHolder productCatalogHolder;
+
+    @Value("${petstore.service.product.url:http://localhost:8082}")
+    private String productServiceUrl;
+
+    @Value("${petstore.service.product.watch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${petstore.service.product.watch.timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Value("${petstore.service.product.watch.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    @Value("${petstore.service.product.watch.min-reset-interval-ms:10000}")
+    private long minResetIntervalMs;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    private String epoch;
+    private Long version;
+    private long lastResetAt;
+
+    public ProductCatalogWatcher(RestTemplate restTemplate, ProductCatalogHolder productCatalogHolder) {
+        this.restTemplate = restTemplate;
+        this.productCatalogHolder = productCatalogHolder;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "product-catalog-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching product catalog at {} (timeout {}ms)", productServiceUrl, timeoutMs);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        long backoffMs = 1000;
+        while (running) {
+            try {
+                poll();
+                backoffMs = 1000;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                // epoch and version are kept: a restarted service answers a foreign epoch with a reset
+                log.warn("Product catalog watch failed, retrying in {}ms: {}", backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    void poll() throws InterruptedException {
+        StringBuilder url = new StringBuilder(productServiceUrl)
+                .append("/petstoreproductservice/v2/product/watch?status=available&timeoutMs=").append(timeoutMs);
+        boolean resuming = epoch != null && version != null;
+        if (resuming) {
+            url.append("&epoch=").append(epoch).append("&sinceVersion=").append(version);
+        }
+
+        ProductChanges changes = restTemplate.getForObject(url.toString(), ProductChanges.class);
+        if (changes == null) {
+            throw new IllegalStateException("empty watch response");
+        }
+
+        epoch = changes.getEpoch();
+        version = changes.getVersion();
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        log.info("Product catalog moved to version {} ({} changed, {} removed{})",
+                changes.getVersion(),
+                changes.getChanged() != null ? changes.getChanged().size() : 0,
+                changes.getRemoved() != null ? changes.getRemoved().size() : 0,
+                changes.isReset() ? ", reset" : "");
+        productCatalogHolder.apply(changes);
+
+        if (changes.isReset()) {
+            long now = System.currentTimeMillis();
+            long pauseMs = resuming ? lastResetAt + minResetIntervalMs - now : 0;
+            lastResetAt = now;
+            if (pauseMs > 0) {
+                log.warn("Product catalog watch was reset again within {}ms, pausing {}ms", minResetIntervalMs, pauseMs);
+                Thread.sleep(pauseMs);
+            }
+        }
+    }
+}
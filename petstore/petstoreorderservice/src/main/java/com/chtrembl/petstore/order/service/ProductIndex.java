@@ -0,0 +1,102 @@
+package com.chtrembl.petstore.order.service;
+
+import com.chtrembl.petstore.order.model.Product;
+
+import java.util.List;
+
+/**
+ * Immutable id-to-product index over one fetched catalog, shared by order validation and
+ * enrichment.
+ * <p>
+ * Open addressing with linear probing over a primitive {@code long[]} key table, at most half
+ * full, so a lookup is one hash and usually one or two probes, with no boxing and no per-entry
+ * objects. Slots hold the product's position plus one; zero marks an empty slot, so every id,
+ * including 0, can be stored.
+ */
+public final class ProductIndex {
+
+    private static final ProductIndex EMPTY = of(List.of());
+
+    private final List<Product> products;
+    private final long[] keys;
+    private final int[] slots;
+    private final int mask;
+
+    private ProductIndex(List<Product> products, long[] keys, int[] slots) {
+        this.products = products;
+        this.keys = keys;
+        this.slots = slots;
+        this.mask = keys.length - 1;
+    }
+
+    public static ProductIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Indexes the given products by id. Products without an id are skipped; for duplicate ids the
+     * first one wins.
+     */
+    public static ProductIndex of(List<Product> products) {
+        List<Product> indexed = List.copyOf(products);
+        int capacity = Integer.highestOneBit(Math.max(2, indexed.size()) * 2 - 1) << 1;
+        long[] keys = new long[capacity];
+        int[] slots = new int[capacity];
+        int mask = capacity - 1;
+
+        for (int position = 0; position < indexed.size(); position++) {
+            Long id = indexed.get(position).getId();
+            if (id == null) {
+                continue;
+            }
+            int slot = hash(id) & mask;
+            while (slots[slot] != 0 && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            if (slots[slot] == 0) {
+                keys[slot] = id;
+                slots[slot] = position + 1;
+            }
+        }
+        return new ProductIndex(indexed, keys, slots);
+    }
+
+    /**
+     * The product with the given id, or null.
+     */
+    public Product get(long id) {
+        int slot = hash(id) & mask;
+        while (slots[slot] != 0) {
+            if (keys[slot] == id) {
+                return products.get(slots[slot] - 1);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean contains(long id) {
+        return get(id) != null;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    /**
+     * Murmur3 finalizer; spreads sequential database ids across the table.
+     */
+    private static int hash(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
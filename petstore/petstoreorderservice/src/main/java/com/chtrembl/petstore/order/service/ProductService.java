@@ -1,21 +1,23 @@
 package com.chtrembl.petstore.order.service;
 
+import com.chtrembl.petstore.order.model.NormalizedProducts;
 import com.chtrembl.petstore.order.model.Product;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
+import java.util.function.Consumer;
+
+import static com.chtrembl.petstore.order.config.Constants.X_CATALOG_EPOCH;
+import static com.chtrembl.petstore.order.config.Constants.X_CATALOG_VERSION;
 
 @Service
 @Slf4j
@@ -28,34 +30,79 @@ public class ProductService {
     @Value("${petstore.service.product.url:http://localhost:8082}")
     private String productServiceUrl;
 
-    @Cacheable("products")
-    public List<Product> getAvailableProducts() {
-        log.info("Retrieving products from: {}/petstoreproductservice/v2/product/findByStatus?status=available",
-                productServiceUrl);
+    /**
+     * export (streamed NDJSON, the default) or normalized (dictionary-encoded findByStatus).
+     */
+    @Value("${petstore.service.product.fetch-mode:export}")
+    private String fetchMode;
 
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.add(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
-            headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+    /**
+     * Fetches the available products, handing each one to the consumer and throwing on any failure.
+     * Callers go through {@link ProductCatalogHolder}, which coalesces, caches and retries these
+     * fetches.
+     *
+     * @return the catalog version the products were taken from, or null if the product service did
+     * not report one (a normalized fetch, or an export read from its database)
+     */
+    public ProductCatalogVersion fetchAvailableProducts(Consumer<Product> consumer) {
+        log.info("Retrieving available products from {} using fetch mode {}", productServiceUrl, fetchMode);
 
-            HttpEntity<String> entity = new HttpEntity<>("parameters", headers);
+        if ("normalized".equalsIgnoreCase(fetchMode)) {
+            List<Product> products = findNormalizedProducts("available");
+            products.forEach(consumer);
+            log.info("Successfully retrieved {} products from product service", products.size());
+            return null;
+        }
 
-            ResponseEntity<String> response = restTemplate.exchange(
-                    String.format("%s/petstoreproductservice/v2/product/findByStatus?status=available", productServiceUrl),
-                    HttpMethod.GET,
-                    entity,
-                    String.class
-            );
+        ProductCatalogVersion version = exportProducts("available", consumer);
+        log.info("Successfully retrieved products from product service, catalog version {}", version);
+        return version;
+    }
 
-            List<Product> products = objectMapper.readValue(response.getBody(), new TypeReference<>() {
-            });
+    /**
+     * Fetches the dictionary-encoded product list; only the items are materialized.
+     */
+    public List<Product> findNormalizedProducts(String status) {
+        NormalizedProducts products = restTemplate.getForObject(
+                String.format("%s/petstoreproductservice/v2/product/findByStatus?status=%s&format=normalized",
+                        productServiceUrl, status),
+                NormalizedProducts.class);
+        return products != null && products.getItems() != null ? products.getItems() : List.of();
+    }
 
-            log.info("Successfully retrieved {} products from product service", products.size());
-            return products;
+    /**
+     * Streams the product service's NDJSON export and parses it one line at a time, handing each
+     * product to the consumer. The response body is never buffered as a whole.
+     *
+     * @return the catalog version from the export headers, or null if the export carried none
+     */
+    public ProductCatalogVersion exportProducts(String status, Consumer<Product> consumer) {
+        return restTemplate.execute(
+                String.format("%s/petstoreproductservice/v2/product/export?status=%s", productServiceUrl, status),
+                HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON)),
+                response -> {
+                    try (MappingIterator<Product> products = objectMapper.readerFor(Product.class)
+                            .readValues(response.getBody())) {
+                        while (products.hasNextValue()) {
+                            consumer.accept(products.nextValue());
+                        }
+                    }
+                    return versionOf(response.getHeaders());
+                });
+    }
 
-        } catch (Exception e) {
-            log.error("Error retrieving products from product service: {}", e.getMessage(), e);
-            return List.of(); // Return empty list on error
+    private static ProductCatalogVersion versionOf(HttpHeaders headers) {
+        String epoch = headers.getFirst(X_CATALOG_EPOCH);
+        String version = headers.getFirst(X_CATALOG_VERSION);
+        if (epoch == null || version == null) {
+            return null;
+        }
+        try {
+            return new ProductCatalogVersion(epoch, Long.parseLong(version));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed {} header: {}", X_CATALOG_VERSION, version);
+            return null;
         }
     }
 }
@@ -0,0 +1,54 @@
+package com.chtrembl.petstore.order.config;
+
+import com.chtrembl.petstore.order.model.Order;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The {@code _etag} stays in the stored document, which conditional replaces depend on, and only
+ * the web layer's mapper leaves it out.
+ */
+class JacksonConfigTest {
+
+    private static final String ORDER_ID = "68FAE9B1D86B794F0AE0ADD35A437428";
+    private static final String ETAG = "\"0b00e7b4-0000-0700-0000-66f1c3a80000\"";
+
+    private final Order order = Order.builder()
+            .id(ORDER_ID)
+            ._etag(ETAG)
+            .email("customer@example.com")
+            .status(Order.Status.PLACED)
+            .build();
+
+    @Test
+    void apiJsonLeavesOutEtag() throws Exception {
+        ObjectMapper webMapper = webMapper();
+
+        JsonNode response = webMapper.valueToTree(order);
+        assertFalse(response.has("_etag"), response::toString);
+        assertEquals(ORDER_ID, response.get("id").asText());
+
+        Order request = webMapper.readValue("{\"id\":\"" + ORDER_ID + "\",\"_etag\":\"\\\"forged\\\"\"}", Order.class);
+        assertNull(request.get_etag());
+    }
+
+    @Test
+    void documentJsonKeepsEtag() {
+        // Spring Data Cosmos maps entities with a plain mapper of its own
+        JsonNode document = new ObjectMapper().valueToTree(order);
+
+        assertEquals(ETAG, document.get("_etag").asText());
+    }
+
+    private static ObjectMapper webMapper() {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfig().orderWebViewCustomizer().customize(builder);
+        return builder.build();
+    }
+}
@@ -0,0 +1,167 @@
+package com.chtrembl.petstore.order.service;
+
+import com.azure.cosmos.CosmosException;
+import com.azure.spring.data.cosmos.exception.CosmosAccessException;
+import com.chtrembl.petstore.order.model.Order;
+import com.chtrembl.petstore.order.model.Product;
+import com.chtrembl.petstore.order.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two cart updates of one order that both read it before either writes. The repository stands in
+ * for Cosmos the way {@code CosmosTemplate} drives it: the entity is serialized with a plain
+ * mapper, the replace is conditional on the {@code _etag} found in that document, and a mismatch
+ * fails with 412. Both lines must survive, the second through a re-read and re-applied update.
+ */
+class OrderServiceConcurrentUpdateTest {
+
+    private static final String ORDER_ID = "68FAE9B1D86B794F0AE0ADD35A437428";
+    private static final int PRECONDITION_FAILED = 412;
+
+    private final FakeOrderContainer container = new FakeOrderContainer();
+    private ExecutorService executor;
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        ProductCatalogHolder productCatalogHolder = mock(ProductCatalogHolder.class);
+        when(productCatalogHolder.getProductIndex()).thenReturn(ProductIndex.of(List.of(
+                Product.builder().id(1L).name("Ball").photoURL("ball.jpg").build(),
+                Product.builder().id(2L).name("Bone").photoURL("bone.jpg").build())));
+
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.findById(anyString())).thenAnswer(invocation -> container.read(invocation.getArgument(0)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> container.replace(invocation.getArgument(0)));
+
+        orderService = new OrderService(productCatalogHolder);
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "maxUpdateAttempts", 5);
+
+        container.create(Order.builder().id(ORDER_ID).status(Order.Status.PLACED).build());
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCartUpdatesKeepBothLines() throws Exception {
+        // neither update may write before both have read the same version
+        container.holdReads(2);
+
+        Future<Order> ball = executor.submit(() -> orderService.updateOrder(addLine(1L, 2)));
+        Future<Order> bone = executor.submit(() -> orderService.updateOrder(addLine(2L, 3)));
+        ball.get(10, TimeUnit.SECONDS);
+        bone.get(10, TimeUnit.SECONDS);
+
+        Map<Long, Integer> quantities = container.read(ORDER_ID).orElseThrow().getProducts().stream()
+                .collect(Collectors.toMap(Product::getId, Product::getQuantity));
+        assertEquals(Map.of(1L, 2, 2L, 3), quantities);
+        assertEquals(1, container.conflicts.get(), "the losing update must be rejected once and re-applied");
+    }
+
+    @Test
+    void updateAppliedToCurrentVersionIsNotRetried() throws Exception {
+        orderService.updateOrder(addLine(1L, 2));
+        orderService.updateOrder(addLine(1L, 1));
+
+        List<Product> products = container.read(ORDER_ID).orElseThrow().getProducts();
+        assertEquals(1, products.size());
+        assertEquals(3, products.get(0).getQuantity());
+        assertEquals("Ball", products.get(0).getName());
+        assertEquals(0, container.conflicts.get());
+    }
+
+    private static Order addLine(long productId, int quantity) {
+        return Order.builder()
+                .id(ORDER_ID)
+                .products(List.of(Product.builder().id(productId).quantity(quantity).build()))
+                .build();
+    }
+
+    /**
+     * Documents by id, each stored with the {@code _etag} Cosmos would assign.
+     */
+    private static final class FakeOrderContainer {
+
+        // Spring Data Cosmos maps entities with a plain mapper of its own
+        private final ObjectMapper documentMapper = new ObjectMapper();
+        private final Map<String, ObjectNode> documents = new ConcurrentHashMap<>();
+        private final AtomicInteger conflicts = new AtomicInteger();
+        private final CosmosException preconditionFailed = preconditionFailed();
+        private volatile CyclicBarrier readBarrier;
+        private final AtomicInteger heldReads = new AtomicInteger();
+
+        void create(Order order) {
+            ObjectNode document = documentMapper.valueToTree(order);
+            document.put("_etag", newEtag());
+            documents.put(order.getId(), document);
+        }
+
+        void holdReads(int readers) {
+            heldReads.set(readers);
+            readBarrier = new CyclicBarrier(readers);
+        }
+
+        Optional<Order> read(String id) throws Exception {
+            ObjectNode document = documents.get(id);
+            Order order = document != null ? documentMapper.treeToValue(document, Order.class) : null;
+            if (heldReads.getAndDecrement() > 0) {
+                readBarrier.await(5, TimeUnit.SECONDS);
+            }
+            return Optional.ofNullable(order);
+        }
+
+        /**
+         * Conditional on the {@code _etag} of the serialized entity, as {@code CosmosTemplate}
+         * sends it in If-Match; without one the replace is unconditional.
+         */
+        synchronized Order replace(Order order) throws Exception {
+            ObjectNode document = documentMapper.valueToTree(order);
+            ObjectNode stored = documents.get(order.getId());
+            if (document.hasNonNull("_etag") && !document.get("_etag").equals(stored.get("_etag"))) {
+                conflicts.incrementAndGet();
+                throw new CosmosAccessException("Precondition failed", preconditionFailed);
+            }
+            document.put("_etag", newEtag());
+            documents.put(order.getId(), document);
+            return documentMapper.treeToValue(document, Order.class);
+        }
+
+        private static CosmosException preconditionFailed() {
+            CosmosException exception = mock(CosmosException.class);
+            when(exception.getStatusCode()).thenReturn(PRECONDITION_FAILED);
+            return exception;
+        }
+
+        private static String newEtag() {
+            return "\"" + UUID.randomUUID() + "\"";
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.chtrembl.petstore.pet.repository;
+
+import com.chtrembl.petstore.pet.CatalogTestDatabase;
+import com.chtrembl.petstore.pet.PetServiceApplication;
+import com.chtrembl.petstore.pet.model.Pet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two {@link PetCatalogReader} implementations over the same PostgreSQL data: the JPA reader
+ * (entity graph, managed entities) against the JDBC reader (one joined query mapped onto detached
+ * pets). Both run in a read-only transaction, as the catalog load does.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="PetCatalogReaderBenchmark"} (needs Docker).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PetCatalogReaderBenchmark {
+
+    private static final Set<Pet.Status> AVAILABLE = Set.of(Pet.Status.available);
+
+    @Param({"1000", "10000", "100000"})
+    private int pets;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private PetCatalogReader jpaReader;
+    private PetCatalogReader jdbcReader;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = CatalogTestDatabase.newContainer();
+        postgres.start();
+        context = new SpringApplicationBuilder(PetServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(CatalogTestDatabase.properties(postgres))
+                .run();
+        CatalogTestDatabase.insertPets(context.getBean(JdbcTemplate.class), pets);
+
+        // only one reader is a bean (petstore.catalog.reader), so both are built here
+        jpaReader = new JpaPetCatalogReader(context.getBean(PetRepository.class));
+        jdbcReader = new JdbcPetCatalogReader(context.getBean(NamedParameterJdbcTemplate.class));
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public List<Pet> findAllJpa() {
+        return readOnlyTransaction.execute(status -> jpaReader.findAll());
+    }
+
+    @Benchmark
+    public List<Pet> findAllJdbc() {
+        return readOnlyTransaction.execute(status -> jdbcReader.findAll());
+    }
+
+    @Benchmark
+    public List<Pet> findByStatusJpa() {
+        return readOnlyTransaction.execute(status -> jpaReader.findByStatus(AVAILABLE));
+    }
+
+    @Benchmark
+    public List<Pet> findByStatusJdbc() {
+        return readOnlyTransaction.execute(status -> jdbcReader.findByStatus(AVAILABLE));
+    }
+}
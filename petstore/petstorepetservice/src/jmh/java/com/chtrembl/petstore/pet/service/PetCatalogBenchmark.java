@@ -0,0 +1,110 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.CatalogTestDatabase;
+import com.chtrembl.petstore.pet.PetServiceApplication;
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.repository.PetRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pet reads served from the catalog snapshot against the previous path, which loaded every pet
+ * with {@code findAll()} and filtered the list on each call, at 30, 10k and 1M pets in PostgreSQL.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="PetCatalogBenchmark"} (needs Docker).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class PetCatalogBenchmark {
+
+    private static final List<String> AVAILABLE = List.of("available");
+
+    @Param({"30", "10000", "1000000"})
+    private int pets;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private PetRepository petRepository;
+    private PetService petService;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = CatalogTestDatabase.newContainer();
+        postgres.start();
+        context = new SpringApplicationBuilder(PetServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(CatalogTestDatabase.properties(postgres))
+                .run();
+        CatalogTestDatabase.insertPets(context.getBean(JdbcTemplate.class), pets);
+
+        petRepository = context.getBean(PetRepository.class);
+        petService = context.getBean(PetService.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        context.getBean(PetCatalogService.class).refresh();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public List<Pet> findByStatusFindAllAndFilter() {
+        return readOnlyTransaction.execute(status -> petRepository.findAll().stream()
+                .filter(pet -> pet.getStatus() == Pet.Status.available)
+                .toList());
+    }
+
+    @Benchmark
+    public List<Pet> findByStatusSnapshot() {
+        return petService.findPetsByStatus(AVAILABLE);
+    }
+
+    @Benchmark
+    public Optional<Pet> findByIdFindAllAndFilter() {
+        long petId = randomPetId();
+        return readOnlyTransaction.execute(status -> petRepository.findAll().stream()
+                .filter(pet -> pet.getId() == petId)
+                .findFirst());
+    }
+
+    @Benchmark
+    public Optional<Pet> findByIdSnapshot() {
+        return petService.findPetById(randomPetId());
+    }
+
+    private long randomPetId() {
+        return ThreadLocalRandom.current().nextLong(1, pets + 1);
+    }
+}
@@ -2,23 +2,41 @@ package com.chtrembl.petstore.pet;
 
 import com.chtrembl.petstore.pet.model.ContainerEnvironment;
 import com.chtrembl.petstore.pet.model.DataPreload;
+import com.chtrembl.petstore.pet.model.PetImportResult;
 import com.chtrembl.petstore.pet.repository.PetRepository;
+import com.chtrembl.petstore.pet.service.PetImportFormat;
+import com.chtrembl.petstore.pet.service.PetImportService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 @SpringBootApplication(scanBasePackages = "com.chtrembl.petstore.pet")
 @EnableJpaRepositories
+@Slf4j
 public class PetServiceApplication implements CommandLineRunner {
 
 //	@Autowired
 //	private PetRepository petRepository;
 
+	@Autowired
+	private PetImportService petImportService;
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
 	@Bean
 	public ContainerEnvironment containerEnvvironment() {
 		return new ContainerEnvironment();
@@ -35,10 +53,38 @@ public class PetServiceApplication implements CommandLineRunner {
 		if (arg0.length > 0 && arg0[0].equals("exitcode")) {
 			throw new ExitException();
 		}
+		if (arg0.length > 1 && arg0[0].equals("import")) {
+			importPets(arg0);
+		}
+	}
+
+	/**
+	 * {@code import <file> [ndjson|csv]}: bulk loads the file and shuts the application down.
+	 * The format defaults to the file extension. {@link #main} starts this mode without the web
+	 * server and without scheduled jobs.
+	 */
+	private void importPets(String... args) throws Exception {
+		Path file = Path.of(args[1]);
+		PetImportFormat format = args.length > 2 ? PetImportFormat.fromName(args[2])
+				: PetImportFormat.fromFileName(file.getFileName().toString());
+
+		PetImportResult result;
+		try (InputStream input = Files.newInputStream(file)) {
+			result = petImportService.importPets(input, format);
+		}
+		log.info("Imported {} pets from {} in {}ms", result.getPets(), file, result.getElapsedMs());
+		System.exit(SpringApplication.exit(applicationContext, () -> 0));
 	}
 
 	public static void main(String[] args) throws Exception {
-        new SpringApplication(PetServiceApplication.class).run(args);
+		if (args.length > 1 && args[0].equals("import")) {
+			new SpringApplicationBuilder(PetServiceApplication.class)
+					.web(WebApplicationType.NONE)
+					.properties("petstore.scheduling.enabled=false")
+					.run(args);
+			return;
+		}
+		new SpringApplication(PetServiceApplication.class).run(args);
 	}
 
 	class ExitException extends RuntimeException implements ExitCodeGenerator {
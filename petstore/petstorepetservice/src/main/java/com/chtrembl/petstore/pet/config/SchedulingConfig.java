@@ -0,0 +1,15 @@
+package com.chtrembl.petstore.pet.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs (catalog refresh) run unless {@code petstore.scheduling.enabled} is false, which
+ * the one-shot CLI import sets.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "petstore.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
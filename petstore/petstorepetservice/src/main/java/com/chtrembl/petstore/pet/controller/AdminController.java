@@ -0,0 +1,104 @@
+package com.chtrembl.petstore.pet.controller;
+
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.PetImportResult;
+import com.chtrembl.petstore.pet.service.PetImportFormat;
+import com.chtrembl.petstore.pet.service.PetImportService;
+import com.chtrembl.petstore.pet.service.PetService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/petstorepetservice/v2/admin")
+@Slf4j
+@RequiredArgsConstructor
+@Tag(name = "Admin", description = "Pet Store Pet Service administration API")
+public class AdminController {
+
+    private final PetImportService petImportService;
+    private final PetService petService;
+
+    @Value("${petstore.import.admin-enabled:false}")
+    private boolean importEnabled;
+
+    @Value("${petstore.catalog.reader-endpoint-enabled:false}")
+    private boolean readerEndpointEnabled;
+
+    @Operation(
+            summary = "Bulk import pets",
+            description = "Streams pets with their categories and tags from the request body (NDJSON or CSV) into the database"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import completed",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Unknown format or invalid record", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Import endpoint is disabled", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @PostMapping("/pets/import")
+    public ResponseEntity<PetImportResult> importPets(
+            @Parameter(description = "Input format, ndjson or csv", example = "ndjson")
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            InputStream body) {
+
+        if (!importEnabled) {
+            return ResponseEntity.notFound().build();
+        }
+        log.info("Received POST request to /petstorepetservice/v2/admin/pets/import with format: {}", format);
+
+        try {
+            return ResponseEntity.ok(petImportService.importPets(body, PetImportFormat.fromName(format)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected pet import: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error occurred while importing pets: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(
+            summary = "Read pets through the catalog reader",
+            description = "Runs the configured catalog reader (petstore.catalog.reader) for every call, bypassing the catalog snapshot and response caches"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pets read from the database",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Reader endpoint is disabled", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping("/catalog/reader")
+    public ResponseEntity<List<Pet>> readPets(
+            @Parameter(description = "Status values to read", example = "available")
+            @RequestParam(value = "status", defaultValue = "available") List<String> status) {
+
+        if (!readerEndpointEnabled) {
+            return ResponseEntity.notFound().build();
+        }
+        log.info("Received GET request to /petstorepetservice/v2/admin/catalog/reader with status: {}", status);
+
+        try {
+            return ResponseEntity.ok(petService.readPetsByStatus(status));
+        } catch (Exception e) {
+            log.error("Error occurred while reading pets through the catalog reader: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.chtrembl.petstore.pet.controller;
 
+import com.chtrembl.petstore.pet.model.NormalizedPets;
 import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.PetLookup;
+import com.chtrembl.petstore.pet.service.PetFields;
+import com.chtrembl.petstore.pet.service.PetSearchIndex;
+import com.chtrembl.petstore.pet.service.PetSearchService;
 import com.chtrembl.petstore.pet.service.PetService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,10 +16,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -29,6 +38,13 @@ import java.util.List;
 public class PetController {
 
 	private final PetService petService;
+	private final PetSearchService petSearchService;
+
+	@Value("${petstore.batch.max-ids:500}")
+	private int maxBatchIds;
+
+	@Value("${petstore.search.max-limit:50}")
+	private int maxSearchLimit;
 
 	@Operation(
 			summary = "Find pets by status",
@@ -38,27 +54,108 @@ public class PetController {
 			@ApiResponse(responseCode = "200", description = "Pets found successfully",
 					content = @Content(mediaType = "application/json",
 							schema = @Schema(implementation = Pet.class))),
+			@ApiResponse(responseCode = "400", description = "Unknown field requested", content = @Content),
 			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
 	})
 	@GetMapping("/pet/findByStatus")
-	public ResponseEntity<List<Pet>> findPetsByStatus(
+	public ResponseEntity<byte[]> findPetsByStatus(
 			@Parameter(description = "Status values that need to be considered for filter",
 					required = true,
 					example = "available")
-			@RequestParam(value = "status", required = true) List<String> status) {
+			@RequestParam(value = "status", required = true) List<String> status,
+			@Parameter(description = "Comma separated fields to return (id, name, photoURL, status, category, tags); all fields if omitted",
+					example = "id,name,photoURL,category")
+			@RequestParam(value = "fields", required = false) String fields) {
+
+		log.info("Received GET request to /petstorepetservice/v2/pet/findByStatus with status: {}, fields: {}", status, fields);
 
-		log.info("Received GET request to /petstorepetservice/v2/pet/findByStatus with status: {}", status);
+		PetFields selection;
+		try {
+			selection = fields == null ? null : PetFields.parse(fields);
+		} catch (IllegalArgumentException e) {
+			log.warn("Rejecting findByStatus request: {}", e.getMessage());
+			return ResponseEntity.badRequest().build();
+		}
 
 		try {
-			List<Pet> pets = petService.findPetsByStatus(status);
-			log.info("Successfully found {} pets with status: {}", pets.size(), status);
-			return ResponseEntity.ok(pets);
+			byte[] body = selection == null
+					? petService.findPetsByStatusJson(status)
+					: petService.findPetsByStatusJson(status, selection);
+			log.info("Successfully found pets with status: {} ({} bytes)", status, body.length);
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
 		} catch (Exception e) {
 			log.error("Error occurred while finding pets by status {}: {}", status, e.getMessage(), e);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 		}
 	}
 
+	@Operation(
+			summary = "Find pets by status (normalized)",
+			description = "Same pets as findByStatus, with categories and tags listed once and referenced by id from each item"
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Pets found successfully",
+					content = @Content(mediaType = "application/json",
+							schema = @Schema(implementation = NormalizedPets.class))),
+			@ApiResponse(responseCode = "400", description = "Field selection requested with the normalized format", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+	})
+	@GetMapping(value = "/pet/findByStatus", params = "format=normalized")
+	public ResponseEntity<byte[]> findPetsByStatusNormalized(
+			@Parameter(description = "Status values that need to be considered for filter",
+					required = true,
+					example = "available")
+			@RequestParam(value = "status", required = true) List<String> status,
+			@Parameter(description = "Not supported with the normalized format", hidden = true)
+			@RequestParam(value = "fields", required = false) String fields) {
+
+		log.info("Received GET request to /petstorepetservice/v2/pet/findByStatus (normalized) with status: {}", status);
+
+		if (fields != null) {
+			log.warn("Rejecting normalized findByStatus request with fields: {}", fields);
+			return ResponseEntity.badRequest().build();
+		}
+
+		try {
+			byte[] body = petService.findPetsByStatusNormalizedJson(status);
+			log.info("Successfully found normalized pets with status: {} ({} bytes)", status, body.length);
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+		} catch (Exception e) {
+			log.error("Error occurred while finding normalized pets by status {}: {}", status, e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
+	@Operation(
+			summary = "Search pets by name",
+			description = "Typeahead search over pet names: exact and prefix matches first, then fuzzy (trigram) matches, best first"
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Search completed",
+					content = @Content(mediaType = "application/json")),
+			@ApiResponse(responseCode = "400", description = "Missing query or invalid limit", content = @Content)
+	})
+	@GetMapping("/pet/search")
+	public ResponseEntity<List<PetSearchIndex.Hit>> searchPets(
+			@Parameter(description = "Name or name prefix to search for", required = true, example = "lab")
+			@RequestParam("q") String query,
+			@Parameter(description = "Maximum number of results", example = "10")
+			@RequestParam(value = "limit", defaultValue = "10") int limit) {
+
+		log.debug("Received GET request to /petstorepetservice/v2/pet/search with q: {}, limit: {}", query, limit);
+
+		if (query.isBlank() || limit < 1) {
+			return ResponseEntity.badRequest().build();
+		}
+
+		try {
+			return ResponseEntity.ok(petSearchService.search(query, Math.min(limit, maxSearchLimit)));
+		} catch (Exception e) {
+			log.error("Error occurred while searching pets for '{}': {}", query, e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
 	@Operation(
 			summary = "Find pet by ID",
 			description = "Returns a single pet by its ID"
@@ -87,6 +184,59 @@ public class PetController {
 				});
 	}
 
+	@Operation(
+			summary = "Find pets by IDs",
+			description = "Returns one entry per requested ID in request order; unknown IDs are returned with found=false"
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Lookup completed",
+					content = @Content(mediaType = "application/json",
+							schema = @Schema(implementation = PetLookup.class))),
+			@ApiResponse(responseCode = "400", description = "No IDs or too many IDs supplied", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+	})
+	@GetMapping(value = "/pet", params = "ids")
+	public ResponseEntity<List<PetLookup>> getPetsByIds(
+			@Parameter(description = "Comma separated IDs of pets to return", required = true, example = "1,5,9")
+			@RequestParam("ids") List<Long> ids) {
+
+		log.info("Received GET request to /petstorepetservice/v2/pet with {} ids", ids.size());
+		return lookupPets(ids);
+	}
+
+	@Operation(
+			summary = "Find pets by IDs (long lists)",
+			description = "Same as GET /pet?ids=..., with the IDs supplied as a JSON array in the request body"
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Lookup completed",
+					content = @Content(mediaType = "application/json",
+							schema = @Schema(implementation = PetLookup.class))),
+			@ApiResponse(responseCode = "400", description = "No IDs or too many IDs supplied", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+	})
+	@PostMapping("/pet/findByIds")
+	public ResponseEntity<List<PetLookup>> findPetsByIds(@RequestBody List<Long> ids) {
+		log.info("Received POST request to /petstorepetservice/v2/pet/findByIds with {} ids", ids == null ? 0 : ids.size());
+		return lookupPets(ids);
+	}
+
+	private ResponseEntity<List<PetLookup>> lookupPets(List<Long> ids) {
+		if (ids == null || ids.isEmpty() || ids.size() > maxBatchIds || ids.contains(null)) {
+			log.warn("Rejecting pet lookup with {} ids (max {})", ids == null ? 0 : ids.size(), maxBatchIds);
+			return ResponseEntity.badRequest().build();
+		}
+
+		try {
+			List<PetLookup> result = petService.findPetsByIds(ids);
+			log.info("Resolved {} of {} requested pets", result.stream().filter(PetLookup::isFound).count(), ids.size());
+			return ResponseEntity.ok(result);
+		} catch (Exception e) {
+			log.error("Error occurred while finding pets by ids {}: {}", ids, e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
 	@Operation(
 			summary = "Get all pets",
 			description = "Returns a list of all available pets"
@@ -95,19 +245,63 @@ public class PetController {
 			@ApiResponse(responseCode = "200", description = "All pets retrieved successfully",
 					content = @Content(mediaType = "application/json",
 							schema = @Schema(implementation = Pet.class))),
+			@ApiResponse(responseCode = "400", description = "Unknown field requested", content = @Content),
 			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
 	})
 	@GetMapping("/pet/all")
-	public ResponseEntity<List<Pet>> getAllPets() {
-		log.info("Received GET request to /petstorepetservice/v2/pet/all");
+	public ResponseEntity<byte[]> getAllPets(
+			@Parameter(description = "Comma separated fields to return (id, name, photoURL, status, category, tags); all fields if omitted",
+					example = "id,name,photoURL,category")
+			@RequestParam(value = "fields", required = false) String fields) {
+		log.info("Received GET request to /petstorepetservice/v2/pet/all with fields: {}", fields);
 
+		PetFields selection;
 		try {
-			List<Pet> pets = petService.getAllPets();
-			log.info("Successfully retrieved all pets, count: {}", pets.size());
-			return ResponseEntity.ok(pets);
+			selection = fields == null ? null : PetFields.parse(fields);
+		} catch (IllegalArgumentException e) {
+			log.warn("Rejecting pet/all request: {}", e.getMessage());
+			return ResponseEntity.badRequest().build();
+		}
+
+		try {
+			byte[] body = selection == null ? petService.getAllPetsJson() : petService.getAllPetsJson(selection);
+			log.info("Successfully retrieved all pets ({} bytes)", body.length);
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
 		} catch (Exception e) {
 			log.error("Error occurred while retrieving all pets: {}", e.getMessage(), e);
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
 		}
 	}
+
+	@Operation(
+			summary = "Get all pets (normalized)",
+			description = "Same pets as /pet/all, with categories and tags listed once and referenced by id from each item"
+	)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "All pets retrieved successfully",
+					content = @Content(mediaType = "application/json",
+							schema = @Schema(implementation = NormalizedPets.class))),
+			@ApiResponse(responseCode = "400", description = "Field selection requested with the normalized format", content = @Content),
+			@ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+	})
+	@GetMapping(value = "/pet/all", params = "format=normalized")
+	public ResponseEntity<byte[]> getAllPetsNormalized(
+			@Parameter(description = "Not supported with the normalized format", hidden = true)
+			@RequestParam(value = "fields", required = false) String fields) {
+		log.info("Received GET request to /petstorepetservice/v2/pet/all (normalized)");
+
+		if (fields != null) {
+			log.warn("Rejecting normalized pet/all request with fields: {}", fields);
+			return ResponseEntity.badRequest().build();
+		}
+
+		try {
+			byte[] body = petService.getAllPetsNormalizedJson();
+			log.info("Successfully retrieved all pets normalized ({} bytes)", body.length);
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+		} catch (Exception e) {
+			log.error("Error occurred while retrieving normalized pets: {}", e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.chtrembl.petstore.pet.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Dictionary-encoded pet list ({@code ?format=normalized}): every category and tag is listed once
+ * and items refer to them by id, instead of repeating the same objects in every pet.
+ * <p>
+ * The product service carries the same class for its model ({@code NormalizedProducts}). The services
+ * share no code module, so keep both wire formats identical.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NormalizedPets {
+    private List<Category> categories;
+    private List<Tag> tags;
+    private List<Item> items;
+
+    public static NormalizedPets of(List<Pet> pets) {
+        Map<Long, Category> categories = new TreeMap<>();
+        Map<Long, Tag> tags = new TreeMap<>();
+        List<Item> items = new ArrayList<>(pets.size());
+
+        for (Pet pet : pets) {
+            Long categoryId = null;
+            if (pet.getCategory() != null && pet.getCategory().getId() != null) {
+                categoryId = pet.getCategory().getId();
+                categories.putIfAbsent(categoryId, pet.getCategory());
+            }
+            List<Long> tagIds = new ArrayList<>();
+            if (pet.getTags() != null) {
+                for (Tag tag : pet.getTags()) {
+                    // an id-less tag cannot be referenced, same as an id-less category
+                    if (tag.getId() != null) {
+                        tags.putIfAbsent(tag.getId(), tag);
+                        tagIds.add(tag.getId());
+                    }
+                }
+            }
+            items.add(new Item(pet.getId(), pet.getName(), pet.getPhotoURL(), pet.getStatus(), categoryId, tagIds));
+        }
+
+        return new NormalizedPets(new ArrayList<>(categories.values()), new ArrayList<>(tags.values()), items);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private String name;
+
+        @JsonProperty("photoURL")
+        private String photoURL;
+
+        private Pet.Status status;
+        private Long categoryId;
+        private List<Long> tagIds;
+    }
+}
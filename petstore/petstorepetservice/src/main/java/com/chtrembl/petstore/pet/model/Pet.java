@@ -5,12 +5,16 @@ import jakarta.persistence.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Data
 @Entity
-@Table(name = "pet")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "pet", indexes = @Index(name = "idx_pet_status", columnList = "status"))
 public class Pet {
     @Id
     private Long id;
@@ -29,10 +33,12 @@ public class Pet {
 
     @Valid
     @ManyToMany(cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "pet_tag", // Match the table name in the database
             joinColumns = @JoinColumn(name = "pet_id"), // Match the column name in the database
-            inverseJoinColumns = @JoinColumn(name = "tag_id") // Match the column name in the database
+            inverseJoinColumns = @JoinColumn(name = "tag_id"), // Match the column name in the database
+            indexes = @Index(name = "idx_pet_tag_pet_id", columnList = "pet_id")
     )
     private List<Tag> tags;
 
@@ -0,0 +1,16 @@
+package com.chtrembl.petstore.pet.model;
+
+import lombok.Data;
+
+/**
+ * Counters reported by a bulk import.
+ */
+@Data
+public class PetImportResult {
+    private long pets;
+    private long categories;
+    private long tags;
+    private long tagLinks;
+    private long batches;
+    private long elapsedMs;
+}
@@ -0,0 +1,27 @@
+package com.chtrembl.petstore.pet.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a multi-get response: the requested id, whether it exists and, if so, the pet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PetLookup {
+    private Long id;
+    private boolean found;
+    private Pet pet;
+
+    public static PetLookup found(Long id, Pet pet) {
+        return new PetLookup(id, true, pet);
+    }
+
+    public static PetLookup missing(Long id) {
+        return new PetLookup(id, false, null);
+    }
+}
@@ -0,0 +1,62 @@
+package com.chtrembl.petstore.pet.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Sparse view of a {@link Pet} for {@code ?fields=} requests. Fields that were not requested stay
+ * null and are left out of the JSON.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PetSummary {
+
+    /**
+     * Fields that can be requested with {@code ?fields=}, under their JSON property names.
+     */
+    public enum Field {
+        ID("id"),
+        NAME("name"),
+        PHOTO_URL("photoURL"),
+        STATUS("status"),
+        CATEGORY("category"),
+        TAGS("tags");
+
+        private final String queryName;
+
+        Field(String queryName) {
+            this.queryName = queryName;
+        }
+
+        public String getQueryName() {
+            return queryName;
+        }
+
+        /**
+         * @throws IllegalArgumentException if no field has this query name
+         */
+        public static Field fromQueryName(String queryName) {
+            for (Field field : values()) {
+                if (field.queryName.equals(queryName)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown pet field '" + queryName + "'");
+        }
+    }
+
+    private Long id;
+    private Category category;
+    private String name;
+
+    @JsonProperty("photoURL")
+    private String photoURL;
+
+    private List<Tag> tags;
+    private Pet.Status status;
+}
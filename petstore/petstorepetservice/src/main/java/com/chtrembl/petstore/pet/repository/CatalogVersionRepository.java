@@ -0,0 +1,73 @@
+package com.chtrembl.petstore.pet.repository;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads the change counters kept in {@code catalog_version} by database triggers (V3 and V5
+ * migrations). Any transaction that writes a catalog table bumps its counter once, so an unchanged
+ * counter means an unchanged catalog; the counter is the same on the primary and every replica.
+ * <p>
+ * Each counter row carries a random epoch (V4 migration) that changes when the row is created
+ * again, so values from two runs of the counter are never compared with each other.
+ */
+@Repository
+public class CatalogVersionRepository {
+
+    private static final String SELECT_VERSION = "SELECT epoch, version FROM catalog_version WHERE name = :name";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public CatalogVersionRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The counter for {@code catalog}, or null if it has no row.
+     */
+    public CatalogVersion findVersion(String catalog) {
+        List<CatalogVersion> versions = jdbcTemplate.query(SELECT_VERSION, Map.of("name", catalog),
+                (rs, row) -> new CatalogVersion(rs.getString("epoch"), rs.getLong("version")));
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    /**
+     * A counter value and the epoch it belongs to.
+     */
+    public static final class CatalogVersion {
+        private final String epoch;
+        private final long version;
+
+        public CatalogVersion(String epoch, long version) {
+            this.epoch = epoch;
+            this.version = version;
+        }
+
+        public String getEpoch() {
+            return epoch;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CatalogVersion that && version == that.version && Objects.equals(epoch, that.epoch);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(epoch, version);
+        }
+
+        @Override
+        public String toString() {
+            return epoch + ":" + version;
+        }
+    }
+}
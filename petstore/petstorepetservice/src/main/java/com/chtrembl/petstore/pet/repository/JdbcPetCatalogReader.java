@@ -0,0 +1,109 @@
+package com.chtrembl.petstore.pet.repository;
+
+import com.chtrembl.petstore.pet.model.Category;
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog reads with one joined SQL statement mapped straight onto detached {@link Pet} objects.
+ * Nothing is registered in a persistence context, so there are no entity snapshots, dirty checks
+ * or collection wrappers. A category or tag referenced by many pets is materialized once per
+ * query and shared between them.
+ * <p>
+ * The result is the same {@link Pet} model the JPA reader returns rather than separate immutable
+ * types, so the catalog, the caches and the serializers work with either reader; nothing mutates
+ * the pets after they are read.
+ */
+@Repository
+@ConditionalOnProperty(name = "petstore.catalog.reader", havingValue = "jdbc")
+public class JdbcPetCatalogReader implements PetCatalogReader {
+
+    private static final String SELECT_PETS = """
+            SELECT p.id, p.name, p.photourl, p.status,
+                   c.id AS category_id, c.name AS category_name,
+                   t.id AS tag_id, t.name AS tag_name
+            FROM pet p
+            LEFT JOIN category c ON c.id = p.category_id
+            LEFT JOIN pet_tag pt ON pt.pet_id = p.id
+            LEFT JOIN tag t ON t.id = pt.tag_id
+            """;
+    private static final String ORDER = " ORDER BY p.id, t.id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public JdbcPetCatalogReader(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Pet> findAll() {
+        return jdbcTemplate.query(SELECT_PETS + ORDER, new PetRowsExtractor());
+    }
+
+    @Override
+    public List<Pet> findByStatus(Collection<Pet.Status> statuses) {
+        if (statuses.isEmpty()) {
+            return List.of();
+        }
+        List<String> names = statuses.stream().map(Enum::name).toList();
+        return jdbcTemplate.query(SELECT_PETS + " WHERE p.status IN (:statuses)" + ORDER,
+                Map.of("statuses", names), new PetRowsExtractor());
+    }
+
+    /**
+     * Folds the one-row-per-tag result back into pets. Rows arrive ordered by pet id, so a pet is
+     * complete as soon as the id changes.
+     */
+    private static final class PetRowsExtractor implements ResultSetExtractor<List<Pet>> {
+        private final Map<Long, Category> categories = new HashMap<>();
+        private final Map<Long, Tag> tags = new HashMap<>();
+
+        @Override
+        public List<Pet> extractData(ResultSet rs) throws SQLException {
+            List<Pet> pets = new ArrayList<>();
+            Pet current = null;
+            while (rs.next()) {
+                long id = rs.getLong("id");
+                if (current == null || current.getId() != id) {
+                    current = mapPet(rs, id);
+                    pets.add(current);
+                }
+                long tagId = rs.getLong("tag_id");
+                if (!rs.wasNull()) {
+                    String tagName = rs.getString("tag_name");
+                    current.getTags().add(tags.computeIfAbsent(tagId, key -> new Tag(key, tagName)));
+                }
+            }
+            return pets;
+        }
+
+        private Pet mapPet(ResultSet rs, long id) throws SQLException {
+            Pet pet = new Pet();
+            pet.setId(id);
+            pet.setName(rs.getString("name"));
+            pet.setPhotoURL(rs.getString("photourl"));
+            String status = rs.getString("status");
+            pet.setStatus(status != null ? Pet.Status.valueOf(status) : null);
+
+            long categoryId = rs.getLong("category_id");
+            if (!rs.wasNull()) {
+                String categoryName = rs.getString("category_name");
+                pet.setCategory(categories.computeIfAbsent(categoryId, key -> new Category(key, categoryName)));
+            }
+            pet.setTags(new ArrayList<>());
+            return pet;
+        }
+    }
+}
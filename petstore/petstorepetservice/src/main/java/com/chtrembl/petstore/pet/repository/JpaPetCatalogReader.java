@@ -0,0 +1,29 @@
+package com.chtrembl.petstore.pet.repository;
+
+import com.chtrembl.petstore.pet.model.Pet;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@ConditionalOnProperty(name = "petstore.catalog.reader", havingValue = "jpa", matchIfMissing = true)
+public class JpaPetCatalogReader implements PetCatalogReader {
+
+    private final PetRepository petRepository;
+
+    public JpaPetCatalogReader(PetRepository petRepository) {
+        this.petRepository = petRepository;
+    }
+
+    @Override
+    public List<Pet> findAll() {
+        return petRepository.findAll();
+    }
+
+    @Override
+    public List<Pet> findByStatus(Collection<Pet.Status> statuses) {
+        return petRepository.findByStatusInOrderByIdAsc(statuses);
+    }
+}
@@ -0,0 +1,21 @@
+package com.chtrembl.petstore.pet.repository;
+
+import com.chtrembl.petstore.pet.model.Pet;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read path for whole-catalog and status listings, each returning pets with category and tags in
+ * a single statement. The implementation is chosen with {@code petstore.catalog.reader}
+ * ({@code jpa}, the default, or {@code jdbc}).
+ */
+public interface PetCatalogReader {
+
+    List<Pet> findAll();
+
+    /**
+     * Pets with any of the given statuses, ordered by id.
+     */
+    List<Pet> findByStatus(Collection<Pet.Status> statuses);
+}
@@ -1,10 +1,43 @@
 package com.chtrembl.petstore.pet.repository;
 
 import com.chtrembl.petstore.pet.model.Pet;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Every read fetches category and tags with the pet in a single statement; without the entity
+ * graph each pet's tag collection is loaded separately when it is serialized (N+1).
+ */
 @Repository
 public interface PetRepository extends JpaRepository<Pet, Long> {
-    // Define additional query methods if needed
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "tags"})
+    List<Pet> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "tags"})
+    Optional<Pet> findById(Long id);
+
+    /**
+     * Status filter executed in the database ({@code status IN (:statuses)}), backed by idx_pet_status.
+     * Results go to the query cache when the second-level cache is enabled.
+     */
+    @EntityGraph(attributePaths = {"category", "tags"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Pet> findByStatusInOrderByIdAsc(Collection<Pet.Status> statuses);
+
+    /**
+     * Primary-key lookup for a batch of ids in one statement; the caller restores request order.
+     */
+    @EntityGraph(attributePaths = {"category", "tags"})
+    List<Pet> findByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,166 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Category;
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.Tag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable, indexed snapshot of the pet catalog.
+ * <p>
+ * Instances are built once per refresh by {@link PetCatalogService} and swapped in atomically,
+ * so readers never see a partially built catalog and never need to lock.
+ */
+public final class PetCatalog {
+
+    private static final Comparator<Pet> BY_ID = Comparator.comparing(Pet::getId);
+
+    private final long version;
+    private final String epoch;
+    private final List<Pet> pets;
+    private final Map<Long, Pet> petsById;
+    private final Map<Pet.Status, List<Pet>> petsByStatus;
+
+    private PetCatalog(long version, String epoch, List<Pet> pets) {
+        this.version = version;
+        this.epoch = epoch;
+        this.pets = pets;
+
+        Map<Long, Pet> byId = new HashMap<>(Math.max(16, pets.size() * 4 / 3 + 1));
+        Map<Pet.Status, List<Pet>> byStatus = new EnumMap<>(Pet.Status.class);
+        for (Pet pet : pets) {
+            byId.put(pet.getId(), pet);
+            if (pet.getStatus() != null) {
+                byStatus.computeIfAbsent(pet.getStatus(), status -> new ArrayList<>()).add(pet);
+            }
+        }
+        byStatus.replaceAll((status, list) -> List.copyOf(list));
+
+        this.petsById = Collections.unmodifiableMap(byId);
+        this.petsByStatus = Collections.unmodifiableMap(byStatus);
+    }
+
+    /**
+     * Builds a catalog from freshly loaded pets. The pets are copied so the snapshot holds no
+     * reference to persistence-context managed entities or lazy collections; a category or tag is
+     * copied once per build and shared by every pet referencing it, as the readers return them.
+     *
+     * @param epoch epoch of the database change counter the version was read from, or null for a
+     *              locally counted version
+     */
+    static PetCatalog of(long version, String epoch, Collection<Pet> loadedPets) {
+        Map<Long, Category> categories = new HashMap<>();
+        Map<Long, Tag> tags = new HashMap<>();
+        List<Pet> pets = loadedPets.stream()
+                .filter(pet -> pet.getId() != null)
+                .map(pet -> copyOf(pet, categories, tags))
+                .sorted(BY_ID)
+                .toList();
+        return new PetCatalog(version, epoch, pets);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Epoch of the database change counter the version was read from, or null when the version was
+     * counted locally. Versions are only ordered within one epoch.
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Whether both snapshots hold the same pets, compared field by field. The copies made by
+     * {@link #of} use plain lists, so this is a real content comparison rather than a hash.
+     */
+    boolean hasSameContent(PetCatalog other) {
+        return pets.equals(other.pets);
+    }
+
+    public int size() {
+        return pets.size();
+    }
+
+    public List<Pet> getAll() {
+        return pets;
+    }
+
+    public Optional<Pet> findById(Long petId) {
+        return Optional.ofNullable(petsById.get(petId));
+    }
+
+    /**
+     * Returns the pets matching any of the given status names, ordered by id.
+     * Unknown status names are ignored, matching the previous filter-on-read behaviour.
+     */
+    public List<Pet> findByStatus(Collection<String> statuses) {
+        Set<Pet.Status> wanted = parseStatuses(statuses);
+        if (wanted.isEmpty()) {
+            return List.of();
+        }
+        if (wanted.size() == 1) {
+            return petsByStatus.getOrDefault(wanted.iterator().next(), List.of());
+        }
+
+        List<Pet> result = new ArrayList<>();
+        for (Pet.Status status : wanted) {
+            result.addAll(petsByStatus.getOrDefault(status, List.of()));
+        }
+        result.sort(BY_ID);
+        return Collections.unmodifiableList(result);
+    }
+
+    static Set<Pet.Status> parseStatuses(Collection<String> statuses) {
+        Set<Pet.Status> parsed = EnumSet.noneOf(Pet.Status.class);
+        if (statuses == null) {
+            return parsed;
+        }
+        for (String status : statuses) {
+            for (Pet.Status candidate : Pet.Status.values()) {
+                if (candidate.name().equals(status)) {
+                    parsed.add(candidate);
+                }
+            }
+        }
+        return parsed;
+    }
+
+    private static Pet copyOf(Pet source, Map<Long, Category> categories, Map<Long, Tag> tags) {
+        Pet pet = new Pet();
+        pet.setId(source.getId());
+        pet.setName(source.getName());
+        pet.setPhotoURL(source.getPhotoURL());
+        pet.setStatus(source.getStatus());
+        pet.setCategory(source.getCategory() == null ? null : copyOf(source.getCategory(), categories));
+        pet.setTags(source.getTags() == null ? List.of()
+                : source.getTags().stream().map(tag -> copyOf(tag, tags)).toList());
+        return pet;
+    }
+
+    private static Category copyOf(Category source, Map<Long, Category> categories) {
+        if (source.getId() == null) {
+            return new Category(null, source.getName());
+        }
+        return categories.computeIfAbsent(source.getId(), id -> new Category(id, source.getName()));
+    }
+
+    private static Tag copyOf(Tag source, Map<Long, Tag> tags) {
+        if (source.getId() == null) {
+            return new Tag(null, source.getName());
+        }
+        return tags.computeIfAbsent(source.getId(), id -> new Tag(id, source.getName()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.chtrembl.petstore.pet.service;
+
+/**
+ * Published synchronously by {@link PetCatalogService} after a new catalog version became
+ * current, so derived structures can be rebuilt off the request path.
+ */
+public final class PetCatalogPublishedEvent {
+
+    private final PetCatalog catalog;
+
+    public PetCatalogPublishedEvent(PetCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    public PetCatalog getCatalog() {
+        return catalog;
+    }
+}
@@ -0,0 +1,162 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.repository.CatalogVersionRepository;
+import com.chtrembl.petstore.pet.repository.CatalogVersionRepository.CatalogVersion;
+import com.chtrembl.petstore.pet.repository.PetCatalogReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the current {@link PetCatalog} snapshot. The catalog is loaded lazily on first use and
+ * then refreshed in the background; a new snapshot is only published when the data changed, and
+ * each publication is announced with a {@link PetCatalogPublishedEvent}.
+ * <p>
+ * A refresh first reads the database's change counter ({@link CatalogVersionRepository}) and only
+ * reloads the pets when it moved; the counter also becomes the catalog version. Without the
+ * counter table (migrations not applied) every refresh reloads and compares contents, and versions
+ * are counted locally.
+ * <p>
+ * A reload that reads a lower counter than the current catalog's is only a replica that is behind
+ * when both come from the same counter epoch; the current catalog is kept until the counter moves.
+ * A lower counter from another epoch (database rebuilt) or replacing a locally counted version is
+ * published, so the published version can go down, but only together with a new epoch.
+ */
+@Service
+@Slf4j
+public class PetCatalogService {
+
+    private static final String CATALOG_NAME = "pet";
+
+    private final PetCatalogReader petCatalogReader;
+    private final String readerName;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<PetCatalog> catalog = new AtomicReference<>();
+
+    // data version the current catalog was last compared against; guarded by this
+    private CatalogVersion checkedDataVersion;
+    private boolean dataVersionMissingLogged;
+
+    public PetCatalogService(PetCatalogReader petCatalogReader, CatalogVersionRepository catalogVersionRepository,
+                             PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher) {
+        this.petCatalogReader = petCatalogReader;
+        this.readerName = ClassUtils.getUserClass(petCatalogReader).getSimpleName();
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // the data version and the pets it labels come from one snapshot
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Returns the current snapshot, loading it synchronously if no snapshot has been built yet.
+     */
+    public PetCatalog getCatalog() {
+        PetCatalog current = catalog.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = catalog.get();
+            return current != null ? current : refresh();
+        }
+    }
+
+    public boolean isLoaded() {
+        return catalog.get() != null;
+    }
+
+    @Scheduled(initialDelayString = "${petstore.catalog.initial-delay-ms:0}",
+            fixedDelayString = "${petstore.catalog.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Failed to refresh pet catalog, keeping version {}: {}",
+                    catalog.get() != null ? catalog.get().getVersion() : "none", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reloads the catalog from the database if it changed since the last refresh and publishes it
+     * if its content differs.
+     *
+     * @return the snapshot that is current after the refresh
+     */
+    public synchronized PetCatalog refresh() {
+        long start = System.currentTimeMillis();
+        PetCatalog previous = catalog.get();
+        Optional<CatalogVersion> dataVersion = readDataVersion();
+        if (previous != null && dataVersion.isPresent() && dataVersion.get().equals(checkedDataVersion)) {
+            log.debug("Pet catalog unchanged at data version {}, keeping version {}",
+                    checkedDataVersion, previous.getVersion());
+            return previous;
+        }
+
+        boolean counted = dataVersion.isPresent();
+        long localVersion = previous != null ? previous.getVersion() + 1 : 1L;
+        long loadStart = System.currentTimeMillis();
+        PetCatalog loaded = readOnlyTransaction.execute(status -> {
+            // read again in the loading transaction, so the version labels exactly these pets
+            CatalogVersion counter = counted ? catalogVersionRepository.findVersion(CATALOG_NAME) : null;
+            List<Pet> pets = petCatalogReader.findAll();
+            return counter != null ? PetCatalog.of(counter.getVersion(), counter.getEpoch(), pets)
+                    : PetCatalog.of(localVersion, null, pets);
+        });
+        log.info("Loaded {} pets with {} in {}ms", loaded.size(), readerName, System.currentTimeMillis() - loadStart);
+        checkedDataVersion = loaded.getEpoch() != null ? new CatalogVersion(loaded.getEpoch(), loaded.getVersion()) : null;
+        if (previous != null && loaded.getEpoch() != null && loaded.getEpoch().equals(previous.getEpoch())
+                && loaded.getVersion() < previous.getVersion()) {
+            // not reloaded again until the counter moves, which it does once the replica caught up
+            log.info("Pet catalog reload saw data version {} behind version {}, keeping it",
+                    loaded.getVersion(), previous.getVersion());
+            return previous;
+        }
+
+        // a catalog from another counter epoch is published even with the same pets, for its labels
+        if (previous != null && previous.hasSameContent(loaded)
+                && Objects.equals(previous.getEpoch(), loaded.getEpoch())) {
+            log.info("Pet catalog unchanged after reload, keeping version {} ({}ms)",
+                    previous.getVersion(), System.currentTimeMillis() - start);
+            return previous;
+        }
+
+        catalog.set(loaded);
+        log.info("Published pet catalog version {} with {} pets in {}ms",
+                loaded.getVersion(), loaded.size(), System.currentTimeMillis() - start);
+        eventPublisher.publishEvent(new PetCatalogPublishedEvent(loaded));
+        return loaded;
+    }
+
+    /**
+     * The database change counter, or empty when the counter table does not exist. Any other
+     * failure propagates so a refresh never mixes counted and locally numbered versions.
+     */
+    private Optional<CatalogVersion> readDataVersion() {
+        try {
+            CatalogVersion version = readOnlyTransaction.execute(status -> catalogVersionRepository.findVersion(CATALOG_NAME));
+            return Optional.ofNullable(version);
+        } catch (BadSqlGrammarException e) {
+            if (!dataVersionMissingLogged) {
+                dataVersionMissingLogged = true;
+                log.warn("No catalog_version table, pet catalog refreshes reload every pet: {}", e.getMessage());
+            }
+            return Optional.empty();
+        }
+    }
+}
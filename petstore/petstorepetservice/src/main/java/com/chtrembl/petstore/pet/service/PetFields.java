@@ -0,0 +1,64 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.PetSummary;
+import com.chtrembl.petstore.pet.model.PetSummary.Field;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Parsed {@code ?fields=} selection for the pet list endpoints.
+ */
+public final class PetFields {
+
+    private final Set<Field> fields;
+
+    private PetFields(Set<Field> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parses a comma separated field list such as {@code id,name,photoURL,category}.
+     *
+     * @throws IllegalArgumentException if the list is empty or names an unknown field
+     */
+    public static PetFields parse(String fields) {
+        Set<Field> parsed = EnumSet.noneOf(Field.class);
+        for (String field : fields.split(",")) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            parsed.add(Field.fromQueryName(trimmed));
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("At least one pet field must be requested");
+        }
+        return new PetFields(parsed);
+    }
+
+    public Set<Field> getFields() {
+        return Collections.unmodifiableSet(fields);
+    }
+
+    public PetSummary project(Pet pet) {
+        PetSummary summary = new PetSummary();
+        summary.setId(fields.contains(Field.ID) ? pet.getId() : null);
+        summary.setName(fields.contains(Field.NAME) ? pet.getName() : null);
+        summary.setPhotoURL(fields.contains(Field.PHOTO_URL) ? pet.getPhotoURL() : null);
+        summary.setStatus(fields.contains(Field.STATUS) ? pet.getStatus() : null);
+        summary.setCategory(fields.contains(Field.CATEGORY) ? pet.getCategory() : null);
+        summary.setTags(fields.contains(Field.TAGS) ? pet.getTags() : null);
+        return summary;
+    }
+
+    /**
+     * Normalized form used in cache keys, independent of the order the fields were requested in.
+     */
+    @Override
+    public String toString() {
+        return fields.toString();
+    }
+}
@@ -0,0 +1,236 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Category;
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.Tag;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Input formats accepted by {@link PetImportService}. Both are read record by record, so the size
+ * of an import is not bounded by heap.
+ */
+public enum PetImportFormat {
+
+    /**
+     * One pet per line in the same JSON shape the API returns. Malformed lines are reported as
+     * {@link IllegalArgumentException}s, like invalid CSV records.
+     */
+    NDJSON {
+        @Override
+        Iterator<Pet> read(InputStream input, ObjectMapper objectMapper) throws IOException {
+            try {
+                return new NdjsonIterator(objectMapper.readerFor(Pet.class).readValues(input));
+            } catch (JsonProcessingException e) {
+                throw invalidNdjson(e);
+            }
+        }
+    },
+
+    /**
+     * Header line followed by one pet per line. Columns are matched by header name:
+     * {@code id,name,photoURL,status,categoryId,categoryName,tags}, where {@code tags} is a
+     * {@code |}-separated list of {@code id:name} pairs. Fields may be double-quoted but must not
+     * span lines.
+     */
+    CSV {
+        @Override
+        Iterator<Pet> read(InputStream input, ObjectMapper objectMapper) throws IOException {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String header = reader.readLine();
+            if (header == null) {
+                return List.<Pet>of().iterator();
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = splitCsvLine(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim(), i);
+            }
+            for (String required : List.of("id", "name")) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("CSV header is missing column '" + required + "'");
+                }
+            }
+            return new CsvIterator(reader, columns);
+        }
+    };
+
+    abstract Iterator<Pet> read(InputStream input, ObjectMapper objectMapper) throws IOException;
+
+    public static PetImportFormat fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Picks the format from a file name, defaulting to NDJSON.
+     */
+    public static PetImportFormat fromFileName(String fileName) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : NDJSON;
+    }
+
+    private static IllegalArgumentException invalidNdjson(JsonProcessingException e) {
+        JsonLocation location = e.getLocation();
+        String line = location != null ? " on line " + location.getLineNr() : "";
+        return new IllegalArgumentException("Invalid NDJSON record" + line + ": " + e.getOriginalMessage(), e);
+    }
+
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Jackson wraps read errors in unchecked exceptions (a {@code RuntimeJsonMappingException} for
+     * bad values, a plain {@code RuntimeException} for broken JSON); both are unwrapped here.
+     */
+    private static final class NdjsonIterator implements Iterator<Pet> {
+        private final MappingIterator<Pet> values;
+
+        private NdjsonIterator(MappingIterator<Pet> values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return values.hasNext();
+            } catch (RuntimeException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public Pet next() {
+            try {
+                return values.next();
+            } catch (RuntimeException e) {
+                throw translate(e);
+            }
+        }
+
+        private static RuntimeException translate(RuntimeException e) {
+            return e.getCause() instanceof JsonProcessingException cause ? invalidNdjson(cause) : e;
+        }
+    }
+
+    private static final class CsvIterator implements Iterator<Pet> {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns;
+        private long lineNumber = 1;
+        private String nextLine;
+
+        private CsvIterator(BufferedReader reader, Map<String, Integer> columns) {
+            this.reader = reader;
+            this.columns = columns;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLine != null;
+        }
+
+        @Override
+        public Pet next() {
+            if (nextLine == null) {
+                throw new NoSuchElementException();
+            }
+            List<String> fields = splitCsvLine(nextLine);
+            long line = lineNumber;
+            advance();
+            try {
+                return toPet(fields);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid CSV record on line " + line + ": " + e.getMessage(), e);
+            }
+        }
+
+        private void advance() {
+            try {
+                do {
+                    nextLine = reader.readLine();
+                    lineNumber++;
+                } while (nextLine != null && nextLine.isBlank());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Pet toPet(List<String> fields) {
+            Pet pet = new Pet();
+            pet.setId(Long.valueOf(value(fields, "id")));
+            pet.setName(value(fields, "name"));
+            pet.setPhotoURL(value(fields, "photoURL"));
+
+            String status = value(fields, "status");
+            pet.setStatus(status == null ? null : Pet.Status.valueOf(status));
+
+            String categoryId = value(fields, "categoryId");
+            if (categoryId != null) {
+                pet.setCategory(new Category(Long.valueOf(categoryId), value(fields, "categoryName")));
+            }
+
+            List<Tag> tags = new ArrayList<>();
+            String tagList = value(fields, "tags");
+            if (tagList != null) {
+                for (String tag : tagList.split("\\|")) {
+                    int separator = tag.indexOf(':');
+                    if (separator < 0) {
+                        throw new IllegalArgumentException("tag '" + tag + "' is not in id:name form");
+                    }
+                    tags.add(new Tag(Long.valueOf(tag.substring(0, separator).trim()), tag.substring(separator + 1)));
+                }
+            }
+            pet.setTags(tags);
+            return pet;
+        }
+
+        private String value(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index);
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Category;
+import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.PetImportResult;
+import com.chtrembl.petstore.pet.model.Tag;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk import of pets with their categories and tags, written with plain JDBC batches instead of
+ * JPA so millions of rows do not pass through a persistence context.
+ * <p>
+ * Input is consumed in batches of {@code petstore.import.batch-size} pets, each written in its own
+ * transaction. All statements are upserts keyed by id and a pet's tag links are replaced, so an
+ * import can be re-run or resumed after a failure. Categories and tags shared by many pets are
+ * written once per import.
+ */
+@Service
+@Slf4j
+public class PetImportService {
+
+    private static final String UPSERT_CATEGORY =
+            "INSERT INTO category (id, name) VALUES (?, ?) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name";
+    private static final String UPSERT_TAG =
+            "INSERT INTO tag (id, name) VALUES (?, ?) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name";
+    private static final String UPSERT_PET =
+            "INSERT INTO pet (id, category_id, name, photourl, status) VALUES (?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (id) DO UPDATE SET category_id = EXCLUDED.category_id, name = EXCLUDED.name, "
+                    + "photourl = EXCLUDED.photourl, status = EXCLUDED.status";
+    private static final String DELETE_PET_TAGS = "DELETE FROM pet_tag WHERE pet_id = ANY (?)";
+    private static final String INSERT_PET_TAG = "INSERT INTO pet_tag (pet_id, tag_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final PetCatalogService petCatalogService;
+
+    @Value("${petstore.import.batch-size:1000}")
+    private int batchSize;
+
+    public PetImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper, EntityManagerFactory entityManagerFactory,
+                            PetCatalogService petCatalogService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.entityManagerFactory = entityManagerFactory;
+        this.petCatalogService = petCatalogService;
+    }
+
+    /**
+     * Streams {@code input} into the database. Once all batches are written the second-level cache
+     * is cleared and the catalog snapshot, if one is loaded, is refreshed so readers see the
+     * imported pets; the CLI import has none and skips the reload.
+     */
+    public PetImportResult importPets(InputStream input, PetImportFormat format) throws IOException {
+        long start = System.currentTimeMillis();
+        PetImportResult result = new PetImportResult();
+        Set<Long> writtenCategories = new HashSet<>();
+        Set<Long> writtenTags = new HashSet<>();
+
+        Iterator<Pet> pets = format.read(input, objectMapper);
+        // keyed by id: a rewritten multi-row upsert must not touch the same row twice
+        Map<Long, Pet> batch = new LinkedHashMap<>();
+        while (pets.hasNext()) {
+            Pet pet = pets.next();
+            if (pet.getId() == null) {
+                throw new IllegalArgumentException("Imported pet '" + pet.getName() + "' has no id");
+            }
+            batch.put(pet.getId(), pet);
+            if (batch.size() >= batchSize) {
+                writeBatch(batch.values(), writtenCategories, writtenTags, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch.values(), writtenCategories, writtenTags, result);
+        }
+
+        result.setElapsedMs(System.currentTimeMillis() - start);
+        log.info("Imported {} pets ({} categories, {} tags, {} tag links) in {} batches, {}ms",
+                result.getPets(), result.getCategories(), result.getTags(), result.getTagLinks(),
+                result.getBatches(), result.getElapsedMs());
+
+        if (result.getPets() > 0) {
+            entityManagerFactory.getCache().evictAll();
+            if (petCatalogService.isLoaded()) {
+                petCatalogService.refresh();
+            }
+        }
+        return result;
+    }
+
+    private void writeBatch(Collection<Pet> batch, Set<Long> writtenCategories, Set<Long> writtenTags,
+                            PetImportResult result) {
+        List<Object[]> categories = new ArrayList<>();
+        List<Object[]> tags = new ArrayList<>();
+        List<Object[]> pets = new ArrayList<>(batch.size());
+        List<Long> petIds = new ArrayList<>(batch.size());
+        List<Object[]> links = new ArrayList<>();
+        Set<Long> newCategories = new HashSet<>();
+        Set<Long> newTags = new HashSet<>();
+
+        for (Pet pet : batch) {
+            Category category = pet.getCategory();
+            Long categoryId = category != null ? category.getId() : null;
+            if (categoryId != null && !writtenCategories.contains(categoryId) && newCategories.add(categoryId)) {
+                categories.add(new Object[]{categoryId, category.getName()});
+            }
+
+            pets.add(new Object[]{pet.getId(), categoryId, pet.getName(), pet.getPhotoURL(),
+                    pet.getStatus() != null ? pet.getStatus().name() : null});
+            petIds.add(pet.getId());
+
+            if (pet.getTags() != null) {
+                Set<Long> petTags = new HashSet<>();
+                for (Tag tag : pet.getTags()) {
+                    if (tag.getId() == null || !petTags.add(tag.getId())) {
+                        continue;
+                    }
+                    if (!writtenTags.contains(tag.getId()) && newTags.add(tag.getId())) {
+                        tags.add(new Object[]{tag.getId(), tag.getName()});
+                    }
+                    links.add(new Object[]{pet.getId(), tag.getId()});
+                }
+            }
+        }
+
+        writeTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_CATEGORY, categories);
+            jdbcTemplate.batchUpdate(UPSERT_TAG, tags);
+            jdbcTemplate.batchUpdate(UPSERT_PET, pets);
+            // one statement for the whole batch: pgjdbc only rewrites batched inserts
+            jdbcTemplate.update(DELETE_PET_TAGS,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", petIds.toArray())));
+            jdbcTemplate.batchUpdate(INSERT_PET_TAG, links);
+        });
+
+        // only remember shared rows once their transaction committed
+        writtenCategories.addAll(newCategories);
+        writtenTags.addAll(newTags);
+        result.setPets(result.getPets() + pets.size());
+        result.setCategories(result.getCategories() + categories.size());
+        result.setTags(result.getTags() + tags.size());
+        result.setTagLinks(result.getTagLinks() + links.size());
+        result.setBatches(result.getBatches() + 1);
+        log.debug("Imported batch {} ({} pets so far)", result.getBatches(), result.getPets());
+    }
+}
@@ -0,0 +1,74 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Cache of ready-to-write UTF-8 JSON bodies for the catalog list endpoints.
+ * <p>
+ * Entries belong to one {@link PetCatalog} snapshot; publishing another snapshot drops the whole
+ * generation, so there is no per-entry invalidation to get wrong. Generations follow publication
+ * rather than version numbers, which may go down when the database counter starts a new epoch.
+ * Keys are built by the caller from the endpoint name and its normalized parameters, which keeps
+ * the key space small.
+ */
+@Component
+@Slf4j
+public class PetResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<Generation> generation = new AtomicReference<>(new Generation(null));
+
+    public PetResponseCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the serialized body for {@code key} in the given catalog, serializing the supplied
+     * value at most once per published catalog. Every catalog, the first one included, is
+     * announced with a {@link PetCatalogPublishedEvent}.
+     */
+    public byte[] get(PetCatalog catalog, String key, Supplier<Object> body) {
+        Generation current = generation.get();
+        if (current.catalog != catalog) {
+            // the caller holds another snapshot than the last published one; serve it uncached
+            return serialize(body.get());
+        }
+        return current.entries.computeIfAbsent(key, k -> serialize(body.get()));
+    }
+
+    @EventListener
+    public void onCatalogPublished(PetCatalogPublishedEvent event) {
+        Generation previous = generation.getAndSet(new Generation(event.getCatalog()));
+        if (previous.catalog != null) {
+            log.debug("Dropping {} cached catalog responses for version {}",
+                    previous.entries.size(), previous.catalog.getVersion());
+        }
+    }
+
+    public byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Generation {
+        private final PetCatalog catalog;
+        private final Map<String, byte[]> entries = new ConcurrentHashMap<>();
+
+        private Generation(PetCatalog catalog) {
+            this.catalog = catalog;
+        }
+    }
+}
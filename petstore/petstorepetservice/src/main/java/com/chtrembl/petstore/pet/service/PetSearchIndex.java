@@ -0,0 +1,411 @@
+package com.chtrembl.petstore.pet.service;
+
+import com.chtrembl.petstore.pet.model.Pet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable name search index over one {@link PetCatalog} snapshot.
+ * <p>
+ * Prefix matches are answered from a sorted array of (term, pet) entries with a binary search;
+ * fuzzy matches use trigram postings scored with the Dice coefficient. A query only visits the
+ * matching term range and the postings of its own trigrams, accumulating scores in a small
+ * primitive hash table sized from those postings, and keeps the best hits in a bounded heap, so
+ * its cost follows the number of candidates rather than the catalog size.
+ * <p>
+ * Pets live in slots that keep their number from one index to the next. Building the index for a
+ * new catalog diffs it against the previous one: only added pets and pets whose name changed are
+ * tokenized, only the postings of their trigrams (and of removed pets) are rewritten, and their
+ * terms are merged into the already sorted term array. Slots of removed pets are reused.
+ */
+public final class PetSearchIndex {
+
+    private static final double EXACT_SCORE = 3.0;
+    private static final double NAME_PREFIX_SCORE = 2.0;
+    private static final double WORD_PREFIX_SCORE = 1.5;
+    /** Fuzzy-only matches below this similarity are noise for typeahead. */
+    private static final double MIN_FUZZY_SCORE = 0.3;
+
+    private static final PetSearchIndex EMPTY =
+            new PetSearchIndex(null, new Pet[0], new Document[0], new String[0], new int[0], Map.of());
+
+    private final PetCatalog catalog;
+    /** Pet per slot, null for a free slot. */
+    private final Pet[] pets;
+    private final Document[] documents;
+    private final String[] terms;
+    private final int[] termPets;
+    private final Map<String, int[]> gramPostings;
+
+    private PetSearchIndex(PetCatalog catalog, Pet[] pets, Document[] documents, String[] terms, int[] termPets,
+                           Map<String, int[]> gramPostings) {
+        this.catalog = catalog;
+        this.pets = pets;
+        this.documents = documents;
+        this.terms = terms;
+        this.termPets = termPets;
+        this.gramPostings = gramPostings;
+    }
+
+    /**
+     * Builds the index for {@code catalog} by applying its difference from {@code previous}, or from
+     * scratch when there is no previous index.
+     */
+    static PetSearchIndex build(PetCatalog catalog, PetSearchIndex previous) {
+        PetSearchIndex base = previous != null ? previous : EMPTY;
+
+        // slots whose document goes away (pet removed or renamed) and slots that get a new one
+        List<Integer> dropped = new ArrayList<>();
+        List<Integer> indexed = new ArrayList<>();
+        List<Integer> free = new ArrayList<>();
+        List<Pet> added = new ArrayList<>();
+
+        Pet[] pets = base.pets.clone();
+        for (int slot = 0; slot < pets.length; slot++) {
+            if (pets[slot] == null) {
+                free.add(slot);
+                continue;
+            }
+            Pet current = catalog.findById(pets[slot].getId()).orElse(null);
+            if (current == null) {
+                dropped.add(slot);
+                free.add(slot);
+            } else if (!Objects.equals(current.getName(), pets[slot].getName())) {
+                dropped.add(slot);
+                indexed.add(slot);
+            }
+            pets[slot] = current;
+        }
+        for (Pet pet : catalog.getAll()) {
+            if (base.catalog == null || base.catalog.findById(pet.getId()).isEmpty()) {
+                added.add(pet);
+            }
+        }
+
+        int size = pets.length + Math.max(0, added.size() - free.size());
+        pets = Arrays.copyOf(pets, size);
+        Document[] documents = Arrays.copyOf(base.documents, size);
+        Iterator<Integer> freeSlots = free.iterator();
+        int appended = base.pets.length;
+        for (Pet pet : added) {
+            int slot = freeSlots.hasNext() ? freeSlots.next() : appended++;
+            pets[slot] = pet;
+            indexed.add(slot);
+        }
+
+        Map<String, List<Integer>> gramsDropped = new HashMap<>();
+        boolean[] droppedSlots = new boolean[size];
+        for (int slot : dropped) {
+            droppedSlots[slot] = true;
+            for (String gram : base.documents[slot].grams) {
+                gramsDropped.computeIfAbsent(gram, g -> new ArrayList<>()).add(slot);
+            }
+            documents[slot] = null;
+        }
+
+        Map<String, List<Integer>> gramsAdded = new HashMap<>();
+        List<Object[]> newTerms = new ArrayList<>();
+        for (int slot : indexed) {
+            Document document = Document.of(normalize(pets[slot].getName()));
+            documents[slot] = document;
+            for (String term : document.terms) {
+                newTerms.add(new Object[]{term, slot});
+            }
+            for (String gram : document.grams) {
+                gramsAdded.computeIfAbsent(gram, g -> new ArrayList<>()).add(slot);
+            }
+        }
+        if (dropped.isEmpty() && indexed.isEmpty()) {
+            return new PetSearchIndex(catalog, pets, documents, base.terms, base.termPets, base.gramPostings);
+        }
+        newTerms.sort((a, b) -> ((String) a[0]).compareTo((String) b[0]));
+
+        // merge the surviving sorted terms with the new ones instead of sorting everything again
+        int kept = 0;
+        for (int pet : base.termPets) {
+            if (!droppedSlots[pet]) {
+                kept++;
+            }
+        }
+        String[] terms = new String[kept + newTerms.size()];
+        int[] termPets = new int[terms.length];
+        int from = 0;
+        int next = 0;
+        for (int i = 0; i < terms.length; i++) {
+            while (from < base.terms.length && droppedSlots[base.termPets[from]]) {
+                from++;
+            }
+            if (from < base.terms.length
+                    && (next == newTerms.size() || base.terms[from].compareTo((String) newTerms.get(next)[0]) <= 0)) {
+                terms[i] = base.terms[from];
+                termPets[i] = base.termPets[from++];
+            } else {
+                terms[i] = (String) newTerms.get(next)[0];
+                termPets[i] = (Integer) newTerms.get(next++)[1];
+            }
+        }
+
+        return new PetSearchIndex(catalog, pets, documents, terms, termPets,
+                patchPostings(base.gramPostings, gramsDropped, gramsAdded));
+    }
+
+    /**
+     * Copies the postings map, rewriting only the postings of the given trigrams.
+     */
+    private static Map<String, int[]> patchPostings(Map<String, int[]> postings, Map<String, List<Integer>> dropped,
+                                                    Map<String, List<Integer>> added) {
+        Map<String, int[]> patched = new HashMap<>(postings);
+        Set<String> grams = new HashSet<>(dropped.keySet());
+        grams.addAll(added.keySet());
+        for (String gram : grams) {
+            Set<Integer> remove = new HashSet<>(dropped.getOrDefault(gram, List.of()));
+            List<Integer> append = added.getOrDefault(gram, List.of());
+            int[] posting = postings.getOrDefault(gram, new int[0]);
+
+            int[] updated = new int[posting.length - remove.size() + append.size()];
+            int length = 0;
+            for (int pet : posting) {
+                if (!remove.contains(pet)) {
+                    updated[length++] = pet;
+                }
+            }
+            for (int pet : append) {
+                updated[length++] = pet;
+            }
+            if (length == 0) {
+                patched.remove(gram);
+            } else {
+                patched.put(gram, updated);
+            }
+        }
+        return patched;
+    }
+
+    /**
+     * The catalog snapshot this index was built from.
+     */
+    public PetCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Returns up to {@code limit} pets best matching {@code query}, highest score first. Exact and
+     * prefix matches always outrank fuzzy ones; ties are broken by pet id.
+     */
+    public List<Hit> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        int from = lowerBound(normalized);
+        int to = from;
+        while (to < terms.length && terms[to].startsWith(normalized)) {
+            to++;
+        }
+        Set<String> queryGrams = trigrams(normalized);
+        List<int[]> postings = new ArrayList<>(queryGrams.size());
+        long candidates = to - from;
+        for (String gram : queryGrams) {
+            int[] posting = gramPostings.get(gram);
+            if (posting != null) {
+                postings.add(posting);
+                candidates += posting.length;
+            }
+        }
+        if (candidates == 0) {
+            return List.of();
+        }
+
+        Accumulator accumulator = new Accumulator((int) Math.min(candidates, documents.length));
+        for (int i = from; i < to; i++) {
+            int pet = termPets[i];
+            double score;
+            if (documents[pet].normalized.equals(normalized)) {
+                score = EXACT_SCORE;
+            } else if (terms[i].equals(documents[pet].normalized)) {
+                score = NAME_PREFIX_SCORE;
+            } else {
+                score = WORD_PREFIX_SCORE;
+            }
+            int slot = accumulator.slot(pet);
+            accumulator.scores[slot] = Math.max(accumulator.scores[slot], score);
+        }
+        for (int[] posting : postings) {
+            for (int pet : posting) {
+                accumulator.overlaps[accumulator.slot(pet)]++;
+            }
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Hit.WORST_FIRST);
+        for (int slot = 0; slot < accumulator.keys.length; slot++) {
+            if (accumulator.keys[slot] == 0) {
+                continue;
+            }
+            int pet = accumulator.keys[slot] - 1;
+            double score = score(accumulator.scores[slot], accumulator.overlaps[slot], queryGrams.size(), pet);
+            if (score > 0) {
+                offer(top, pet, score, limit);
+            }
+        }
+
+        Hit[] ordered = top.toArray(new Hit[0]);
+        Arrays.sort(ordered, Hit.WORST_FIRST.reversed());
+        return List.of(ordered);
+    }
+
+    private double score(double prefixScore, int overlap, int queryGrams, int pet) {
+        double dice = overlap == 0 ? 0 : 2.0 * overlap / (queryGrams + documents[pet].grams.length);
+        if (dice < MIN_FUZZY_SCORE) {
+            return prefixScore;
+        }
+        // fuzzy similarity only adds to prefix scores, it never lifts a fuzzy hit above one
+        return prefixScore > 0 ? prefixScore + dice / 10 : dice;
+    }
+
+    /**
+     * Adds a hit to the bounded heap; candidates that would be evicted at once are not allocated.
+     */
+    private void offer(PriorityQueue<Hit> top, int pet, double score, int limit) {
+        if (top.size() == limit) {
+            Hit worst = top.peek();
+            if (score < worst.score || (score == worst.score && pets[pet].getId() > worst.pet.getId())) {
+                return;
+            }
+        }
+        top.offer(new Hit(pets[pet], score));
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true;
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int length = normalized.length();
+        return space && length > 0 ? normalized.substring(0, length - 1) : normalized.toString();
+    }
+
+    private static Set<String> trigrams(String normalized) {
+        String padded = "  " + normalized + " ";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Per-query scores keyed by catalog position: open addressing with linear probing over primitive
+     * arrays, at most half full. Keys hold the position plus one so zero marks an empty slot.
+     */
+    private static final class Accumulator {
+        private final int[] keys;
+        private final double[] scores;
+        private final int[] overlaps;
+        private final int mask;
+
+        private Accumulator(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+            this.keys = new int[capacity];
+            this.scores = new double[capacity];
+            this.overlaps = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private int slot(int pet) {
+            int slot = (pet * 0x9E3779B9) >>> 1 & mask;
+            while (keys[slot] != 0 && keys[slot] != pet + 1) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = pet + 1;
+            return slot;
+        }
+    }
+
+    /**
+     * Searchable form of one pet name: the whole name, every word suffix of it (so "golden
+     * retriever" is found by "ret") and its trigrams.
+     */
+    private static final class Document {
+        private final String normalized;
+        private final String[] terms;
+        private final String[] grams;
+
+        private Document(String normalized, String[] terms, String[] grams) {
+            this.normalized = normalized;
+            this.terms = terms;
+            this.grams = grams;
+        }
+
+        private static Document of(String normalized) {
+            Set<String> terms = new LinkedHashSet<>();
+            if (!normalized.isEmpty()) {
+                terms.add(normalized);
+                for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+                    terms.add(normalized.substring(i + 1));
+                }
+            }
+            return new Document(normalized, terms.toArray(new String[0]), trigrams(normalized).toArray(new String[0]));
+        }
+    }
+
+    public static final class Hit {
+        private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::getScore)
+                .thenComparing((Hit hit) -> hit.getPet().getId(), Comparator.reverseOrder());
+
+        private final Pet pet;
+        private final double score;
+
+        private Hit(Pet pet, double score) {
+            this.pet = pet;
+            this.score = score;
+        }
+
+        public Pet getPet() {
+            return pet;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
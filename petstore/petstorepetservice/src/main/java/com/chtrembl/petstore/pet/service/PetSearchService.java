@@ -0,0 +1,61 @@
+package com.chtrembl.petstore.pet.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps a {@link PetSearchIndex} in step with the catalog snapshot. The index is updated whenever
+ * another catalog is published, whatever its version (versions go down with a new counter epoch);
+ * queries never touch the database.
+ */
+@Service
+@Slf4j
+public class PetSearchService {
+
+    private final PetCatalogService petCatalogService;
+    private final AtomicReference<PetSearchIndex> index = new AtomicReference<>();
+
+    public PetSearchService(PetCatalogService petCatalogService) {
+        this.petCatalogService = petCatalogService;
+    }
+
+    public List<PetSearchIndex.Hit> search(String query, int limit) {
+        return currentIndex().search(query, limit);
+    }
+
+    @EventListener
+    public void onCatalogPublished(PetCatalogPublishedEvent event) {
+        rebuild();
+    }
+
+    private PetSearchIndex currentIndex() {
+        PetSearchIndex current = index.get();
+        if (current != null && current.getCatalog() == petCatalogService.getCatalog()) {
+            return current;
+        }
+        return rebuild();
+    }
+
+    /**
+     * Indexes the catalog that is current now, not the one a caller saw, so a late caller never
+     * puts an index for an older catalog back.
+     */
+    private synchronized PetSearchIndex rebuild() {
+        PetCatalog catalog = petCatalogService.getCatalog();
+        PetSearchIndex previous = index.get();
+        if (previous != null && previous.getCatalog() == catalog) {
+            return previous;
+        }
+
+        long start = System.nanoTime();
+        PetSearchIndex built = PetSearchIndex.build(catalog, previous);
+        index.set(built);
+        log.info("Built pet search index for catalog version {} in {}us",
+                catalog.getVersion(), (System.nanoTime() - start) / 1_000);
+        return built;
+    }
+}
@@ -1,48 +1,180 @@
 package com.chtrembl.petstore.pet.service;
 
+import com.chtrembl.petstore.pet.model.NormalizedPets;
 import com.chtrembl.petstore.pet.model.Pet;
+import com.chtrembl.petstore.pet.model.PetLookup;
+import com.chtrembl.petstore.pet.model.PetSummary;
+import com.chtrembl.petstore.pet.repository.PetCatalogReader;
 import com.chtrembl.petstore.pet.repository.PetRepository;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Slf4j
 public class PetService {
 
+    private final PetCatalogService petCatalogService;
     private final PetRepository petRepository;
+    private final PetCatalogReader petCatalogReader;
+    private final PetResponseCache petResponseCache;
 
 //    @Value("${dbUrl}") // Replace with the actual secret name in Key Vault
 //    private String mySecretValue;
 
-    public PetService(PetRepository petRepository) {
+    public PetService(PetCatalogService petCatalogService, PetRepository petRepository,
+                      PetCatalogReader petCatalogReader, PetResponseCache petResponseCache) {
+        this.petCatalogService = petCatalogService;
         this.petRepository = petRepository;
+        this.petCatalogReader = petCatalogReader;
+        this.petResponseCache = petResponseCache;
     }
+
+    /**
+     * Served from the catalog snapshot; until the first snapshot is published the filter is
+     * pushed down to the database instead of loading the whole table on the request thread.
+     */
     public List<Pet> findPetsByStatus(List<String> status) {
         log.info("Finding pets with status: {}", status);
 
-        return getAllPets().stream()
-                .filter(pet -> status.contains(pet.getStatus().toString()))
-                .toList();
+        if (petCatalogService.isLoaded()) {
+            return petCatalogService.getCatalog().findByStatus(status);
+        }
+        return readPetsByStatus(status);
+    }
+
+    /**
+     * Pets with the given status read straight from the configured {@link PetCatalogReader},
+     * bypassing the snapshot and the response caches, so the reader itself can be measured.
+     */
+    public List<Pet> readPetsByStatus(List<String> status) {
+        Set<Pet.Status> statuses = PetCatalog.parseStatuses(status);
+        return statuses.isEmpty() ? List.of() : petCatalogReader.findByStatus(statuses);
+    }
+
+    /**
+     * Same result as {@link #findPetsByStatus(List)}, already serialized to JSON. The body is cached
+     * per catalog version under the normalized (parsed, ordered, de-duplicated) status set.
+     */
+    public byte[] findPetsByStatusJson(List<String> status) {
+        log.info("Finding pets as JSON with status: {}", status);
+
+        if (!petCatalogService.isLoaded()) {
+            return petResponseCache.serialize(findPetsByStatus(status));
+        }
+
+        PetCatalog catalog = petCatalogService.getCatalog();
+        Set<Pet.Status> statuses = PetCatalog.parseStatuses(status);
+        return petResponseCache.get(catalog, "findByStatus:" + statuses, () -> catalog.findByStatus(status));
+    }
+
+    /**
+     * Sparse variant of {@link #findPetsByStatusJson(List)} returning only the requested fields,
+     * projected from the snapshot or, before it is loaded, from the same database read as
+     * {@link #findPetsByStatus(List)}.
+     */
+    public byte[] findPetsByStatusJson(List<String> status, PetFields fields) {
+        log.info("Finding pets as JSON with status: {} and fields: {}", status, fields);
+
+        if (!petCatalogService.isLoaded()) {
+            return petResponseCache.serialize(project(findPetsByStatus(status), fields));
+        }
+
+        PetCatalog catalog = petCatalogService.getCatalog();
+        Set<Pet.Status> statuses = PetCatalog.parseStatuses(status);
+        return petResponseCache.get(catalog, "findByStatus:" + statuses + ":fields=" + fields,
+                () -> project(catalog.findByStatus(status), fields));
+    }
+
+    /**
+     * Same pets as {@link #findPetsByStatusJson(List)} in the dictionary-encoded form.
+     */
+    public byte[] findPetsByStatusNormalizedJson(List<String> status) {
+        log.info("Finding pets as normalized JSON with status: {}", status);
+
+        if (!petCatalogService.isLoaded()) {
+            return petResponseCache.serialize(NormalizedPets.of(findPetsByStatus(status)));
+        }
+
+        PetCatalog catalog = petCatalogService.getCatalog();
+        Set<Pet.Status> statuses = PetCatalog.parseStatuses(status);
+        return petResponseCache.get(catalog, "findByStatus:" + statuses + ":normalized",
+                () -> NormalizedPets.of(catalog.findByStatus(status)));
     }
 
     public Optional<Pet> findPetById(Long petId) {
         log.info("Finding pet with id: {}", petId);
 
-        return getAllPets().stream()
-                .filter(pet -> pet.getId().equals(petId))
-                .findFirst();
+        if (petCatalogService.isLoaded()) {
+            return petCatalogService.getCatalog().findById(petId);
+        }
+        return petRepository.findById(petId);
+    }
+
+    /**
+     * Resolves a batch of ids in one pass. The result has one entry per requested id, in request
+     * order (duplicates included), and ids that do not exist come back as explicit misses.
+     */
+    public List<PetLookup> findPetsByIds(List<Long> petIds) {
+        log.info("Finding {} pets by id", petIds.size());
+
+        Map<Long, Pet> found = new HashMap<>();
+        if (petCatalogService.isLoaded()) {
+            PetCatalog catalog = petCatalogService.getCatalog();
+            for (Long petId : petIds) {
+                catalog.findById(petId).ifPresent(pet -> found.put(pet.getId(), pet));
+            }
+        } else {
+            for (Pet pet : petRepository.findByIdIn(new LinkedHashSet<>(petIds))) {
+                found.put(pet.getId(), pet);
+            }
+        }
+
+        return petIds.stream()
+                .map(petId -> found.containsKey(petId) ? PetLookup.found(petId, found.get(petId)) : PetLookup.missing(petId))
+                .toList();
     }
 
     public List<Pet> getAllPets() {
         log.info("Getting all pets");
-        return petRepository.findAll();
+        return petCatalogService.getCatalog().getAll();
+    }
+
+    public byte[] getAllPetsJson() {
+        log.info("Getting all pets as JSON");
+
+        PetCatalog catalog = petCatalogService.getCatalog();
+        return petResponseCache.get(catalog, "all", catalog::getAll);
+    }
+
+    public byte[] getAllPetsJson(PetFields fields) {
+        log.info("Getting all pets as JSON with fields: {}", fields);
+
+        PetCatalog catalog = petCatalogService.getCatalog();
+        return petResponseCache.get(catalog, "all:fields=" + fields, () -> project(catalog.getAll(), fields));
+    }
+
+    public byte[] getAllPetsNormalizedJson() {
+        log.info("Getting all pets as normalized JSON");
+
+        PetCatalog catalog = petCatalogService.getCatalog();
+        return petResponseCache.get(catalog, "all:normalized", () -> NormalizedPets.of(catalog.getAll()));
     }
 
     public int getPetCount() {
-        return petRepository.findAll().size();
+        if (petCatalogService.isLoaded()) {
+            return petCatalogService.getCatalog().size();
+        }
+        return (int) petRepository.count();
+    }
+
+    private static List<PetSummary> project(List<Pet> pets, PetFields fields) {
+        return pets.stream().map(fields::project).toList();
     }
-}
\ No newline at end of file
+}
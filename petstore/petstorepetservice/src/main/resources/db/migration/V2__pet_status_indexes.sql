@@ -0,0 +1,4 @@
+-- Catalog reads filter by status and join tags by pet_id; both were full scans before.
+-- The existing schema is treated as baseline version 1 (spring.flyway.baseline-on-migrate).
+CREATE INDEX IF NOT EXISTS idx_pet_status ON pet (status);
+CREATE INDEX IF NOT EXISTS idx_pet_tag_pet_id ON pet_tag (pet_id);
@@ -0,0 +1,30 @@
+-- Change counter for the in-memory catalog: every statement that writes pets, their tags or
+-- categories bumps it, so the periodic refresh reads one row instead of reloading the table.
+CREATE TABLE IF NOT EXISTS catalog_version (
+    name    VARCHAR(64) PRIMARY KEY,
+    version BIGINT      NOT NULL
+);
+INSERT INTO catalog_version (name, version) VALUES ('pet', 1) ON CONFLICT (name) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_pet_catalog_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE catalog_version SET version = version + 1 WHERE name = 'pet';
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS pet_catalog_version ON pet;
+CREATE TRIGGER pet_catalog_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON pet
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_pet_catalog_version();
+
+DROP TRIGGER IF EXISTS pet_catalog_version ON pet_tag;
+CREATE TRIGGER pet_catalog_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON pet_tag
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_pet_catalog_version();
+
+DROP TRIGGER IF EXISTS pet_catalog_version ON category;
+CREATE TRIGGER pet_catalog_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON category
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_pet_catalog_version();
+
+DROP TRIGGER IF EXISTS pet_catalog_version ON tag;
+CREATE TRIGGER pet_catalog_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON tag
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_pet_catalog_version();
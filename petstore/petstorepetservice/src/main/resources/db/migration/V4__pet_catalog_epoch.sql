@@ -0,0 +1,7 @@
+-- Random token for one run of the change counters. A catalog_version table that is created again
+-- (database rebuilt) starts with a new epoch, so a counter that went down is not mistaken for a
+-- replica that is behind.
+ALTER TABLE catalog_version ADD COLUMN IF NOT EXISTS epoch VARCHAR(32);
+UPDATE catalog_version SET epoch = md5(random()::text || clock_timestamp()::text) WHERE epoch IS NULL;
+ALTER TABLE catalog_version ALTER COLUMN epoch SET DEFAULT md5(random()::text || clock_timestamp()::text);
+ALTER TABLE catalog_version ALTER COLUMN epoch SET NOT NULL;
@@ -0,0 +1,13 @@
+-- The statement-level triggers bumped the counter once per statement, so a batched import wrote
+-- thousands of versions of the hot catalog_version row per transaction. The counter now moves once
+-- per transaction: the first catalog write records its transaction id and later statements of the
+-- same transaction match no row. Readers still see the new value and the data together at commit.
+ALTER TABLE catalog_version ADD COLUMN IF NOT EXISTS bumped_by_xid BIGINT;
+
+CREATE OR REPLACE FUNCTION bump_pet_catalog_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE catalog_version SET version = version + 1, bumped_by_xid = txid_current()
+    WHERE name = 'pet' AND bumped_by_xid IS DISTINCT FROM txid_current();
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
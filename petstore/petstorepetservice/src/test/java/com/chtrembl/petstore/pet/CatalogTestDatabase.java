@@ -0,0 +1,54 @@
+package com.chtrembl.petstore.pet;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.Map;
+
+/**
+ * Throwaway PostgreSQL for tests and benchmarks. The service runs against it with the {@code test}
+ * profile, which creates the baseline catalog tables before the service's own Flyway migrations,
+ * so the plpgsql triggers are exercised as in production.
+ */
+public final class CatalogTestDatabase {
+
+    public static final String IMAGE = "postgres:16-alpine";
+    public static final int CATEGORIES = 10;
+    public static final int TAGS = 20;
+
+    private CatalogTestDatabase() {
+    }
+
+    public static PostgreSQLContainer<?> newContainer() {
+        return new PostgreSQLContainer<>(IMAGE);
+    }
+
+    /**
+     * The properties that point the service's data source at the container.
+     */
+    public static Map<String, Object> properties(PostgreSQLContainer<?> postgres) {
+        return Map.of(
+                "dbUrl", postgres.getJdbcUrl(),
+                "dbUsername", postgres.getUsername(),
+                "dbPassword", postgres.getPassword());
+    }
+
+    /**
+     * Generates pets {@code 1..count}, each with one of {@link #CATEGORIES} categories and two of
+     * {@link #TAGS} tags, statuses cycling through available, pending and sold.
+     */
+    public static void insertPets(JdbcTemplate jdbcTemplate, int count) {
+        jdbcTemplate.update("INSERT INTO category (id, name) SELECT g, 'Category ' || g "
+                + "FROM generate_series(1, ?) g ON CONFLICT (id) DO NOTHING", CATEGORIES);
+        jdbcTemplate.update("INSERT INTO tag (id, name) SELECT g, 'tag' || g "
+                + "FROM generate_series(1, ?) g ON CONFLICT (id) DO NOTHING", TAGS);
+        jdbcTemplate.update("INSERT INTO pet (id, category_id, name, photourl, status) "
+                + "SELECT g, 1 + g % ?, 'Pet ' || g, 'https://example.org/pets/' || g || '.jpg', "
+                + "(ARRAY['available', 'pending', 'sold'])[1 + g % 3] FROM generate_series(1, ?) g",
+                CATEGORIES, count);
+        jdbcTemplate.update("INSERT INTO pet_tag (pet_id, tag_id) "
+                + "SELECT g, 1 + g % ? FROM generate_series(1, ?) g "
+                + "UNION ALL SELECT g, 1 + (g + 1) % ? FROM generate_series(1, ?) g",
+                TAGS, count, TAGS, count);
+    }
+}
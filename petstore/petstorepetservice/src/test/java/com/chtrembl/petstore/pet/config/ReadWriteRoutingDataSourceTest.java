@@ -0,0 +1,125 @@
+package com.chtrembl.petstore.pet.config;
+
+import com.chtrembl.petstore.pet.CatalogTestDatabase;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing between two real PostgreSQL servers, told apart by their database names. The product
+ * service carries an identical copy of {@link ReadWriteRoutingDataSource}, so this test covers both.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String CURRENT_DATABASE = "SELECT current_database()";
+
+    @Container
+    static final PostgreSQLContainer<?> PRIMARY = CatalogTestDatabase.newContainer().withDatabaseName("primary");
+
+    @Container
+    static final PostgreSQLContainer<?> REPLICA = CatalogTestDatabase.newContainer().withDatabaseName("replica");
+
+    private static HikariDataSource replicaPool;
+    private static ReadWriteRoutingDataSource routingDataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate readOnlyTransaction;
+    private static TransactionTemplate readWriteTransaction;
+
+    @BeforeAll
+    static void createDataSource() {
+        // health checks are triggered by the tests, not by the background checker
+        replicaPool = pool("replica", REPLICA);
+        routingDataSource = new ReadWriteRoutingDataSource(pool("primary", PRIMARY), List.of(replicaPool),
+                ReadWriteRoutingDataSource.Strategy.ROUND_ROBIN, 3_600_000);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterAll
+    static void closeDataSource() {
+        if (routingDataSource != null) {
+            routingDataSource.close();
+        }
+    }
+
+    @Test
+    @Order(1)
+    void readOnlyTransactionsGoToReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentDatabase()));
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    @Order(1)
+    void readWriteTransactionsGoToPrimary() {
+        assertEquals("primary", readWriteTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    @Order(1)
+    void statementsOutsideTransactionsGoToPrimary() {
+        assertEquals("primary", currentDatabase());
+    }
+
+    @Test
+    @Order(1)
+    void healthyReplicaStaysInRotation() {
+        routingDataSource.checkReplicas();
+
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    @Order(2)
+    void readsFallBackToPrimaryWhenReplicaIsDown() {
+        REPLICA.stop();
+        // idle connections to the stopped server would only fail once used, not when handed out
+        replicaPool.getHikariPoolMXBean().softEvictConnections();
+
+        // the failed connection marks the replica unhealthy, the health check keeps it out
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentDatabase()));
+        routingDataSource.checkReplicas();
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentDatabase()));
+        assertEquals("primary", readWriteTransaction.execute(status -> currentDatabase()));
+    }
+
+    private static String currentDatabase() {
+        return jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class);
+    }
+
+    private static HikariDataSource pool(String name, PostgreSQLContainer<?> postgres) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("test-" + name);
+        config.setJdbcUrl(postgres.getJdbcUrl());
+        config.setUsername(postgres.getUsername());
+        config.setPassword(postgres.getPassword());
+        config.setMaximumPoolSize(2);
+        config.setConnectionTimeout(1_000);
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+}
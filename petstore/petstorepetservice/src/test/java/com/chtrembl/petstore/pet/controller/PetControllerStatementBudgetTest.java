@@ -0,0 +1,139 @@
+package com.chtrembl.petstore.pet.controller;
+
+import com.chtrembl.petstore.pet.CatalogTestDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement budgets for the {@link PetController} endpoints, counted by Hibernate statistics.
+ * Before the in-memory catalog is loaded every endpoint reads the database with one statement
+ * however many pets and tags match (an N+1 regression shows up as {@value #PETS} or more), the
+ * catalog load is one statement, and once it is loaded no endpoint touches the database.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PetControllerStatementBudgetTest {
+
+    private static final int PETS = 60;
+    private static final String BASE = "/petstorepetservice/v2";
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = CatalogTestDatabase.newContainer();
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        CatalogTestDatabase.properties(POSTGRES).forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    @BeforeAll
+    static void insertPets(@Autowired JdbcTemplate jdbcTemplate) {
+        CatalogTestDatabase.insertPets(jdbcTemplate, PETS);
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @Order(1)
+    void findByStatusBeforeCatalogLoad() {
+        assertGetWithinBudget("/pet/findByStatus?status=available&status=pending", 1);
+        assertGetWithinBudget("/pet/findByStatus?status=available&format=normalized", 1);
+        assertGetWithinBudget("/pet/findByStatus?status=sold&fields=id,name,category", 1);
+    }
+
+    @Test
+    @Order(1)
+    void findByIdBeforeCatalogLoad() {
+        assertGetWithinBudget("/pet/7", 1);
+        assertGetWithinBudget("/pet?ids=3,5,7,11", 1);
+        assertPostWithinBudget("/pet/findByIds", List.of(3L, 5L, 7L, 11L), 1);
+    }
+
+    @Test
+    @Order(2)
+    void catalogLoad() {
+        assertGetWithinBudget("/pet/all", 1);
+    }
+
+    @Test
+    @Order(3)
+    void findByStatusFromCatalog() {
+        assertGetWithinBudget("/pet/findByStatus?status=available&status=pending", 0);
+        assertGetWithinBudget("/pet/findByStatus?status=available&format=normalized", 0);
+        assertGetWithinBudget("/pet/findByStatus?status=sold&fields=id,name,category", 0);
+    }
+
+    @Test
+    @Order(3)
+    void findByIdFromCatalog() {
+        assertGetWithinBudget("/pet/7", 0);
+        assertGetWithinBudget("/pet?ids=3,5,7,11", 0);
+        assertPostWithinBudget("/pet/findByIds", List.of(3L, 5L, 7L, 11L), 0);
+    }
+
+    @Test
+    @Order(3)
+    void allAndSearchFromCatalog() {
+        assertGetWithinBudget("/pet/all", 0);
+        assertGetWithinBudget("/pet/all?fields=id,name,tags", 0);
+        assertGetWithinBudget("/pet/all?format=normalized", 0);
+        assertGetWithinBudget("/pet/search?q=pet%2012", 0);
+    }
+
+    private void assertGetWithinBudget(String path, long budget) {
+        statistics.clear();
+        ResponseEntity<String> response = restTemplate.getForEntity(BASE + path, String.class);
+        assertWithinBudget("GET " + path, response, budget);
+    }
+
+    private void assertPostWithinBudget(String path, Object body, long budget) {
+        statistics.clear();
+        ResponseEntity<String> response = restTemplate.postForEntity(BASE + path, body, String.class);
+        assertWithinBudget("POST " + path, response, budget);
+    }
+
+    private void assertWithinBudget(String request, ResponseEntity<String> response, long budget) {
+        assertEquals(HttpStatus.OK, response.getStatusCode(), request);
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= budget,
+                () -> request + " prepared " + statements + " statements, budget is " + budget);
+    }
+}
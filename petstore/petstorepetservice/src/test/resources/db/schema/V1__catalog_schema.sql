@@ -0,0 +1,24 @@
+-- The catalog tables as they exist in the deployed database, which Flyway baselines as version 1.
+-- Only tests and benchmarks create them, on an empty throwaway database.
+CREATE TABLE category (
+    id   BIGINT PRIMARY KEY,
+    name VARCHAR(255)
+);
+
+CREATE TABLE tag (
+    id   BIGINT PRIMARY KEY,
+    name VARCHAR(255)
+);
+
+CREATE TABLE pet (
+    id          BIGINT PRIMARY KEY,
+    category_id BIGINT REFERENCES category (id),
+    name        VARCHAR(255) NOT NULL,
+    photourl    VARCHAR(255),
+    status      VARCHAR(32)
+);
+
+CREATE TABLE pet_tag (
+    pet_id BIGINT NOT NULL REFERENCES pet (id),
+    tag_id BIGINT NOT NULL REFERENCES tag (id)
+);
@@ -26,6 +26,10 @@ public final class Constants {
     public static final String X_RESPONSE_SPAN_ID = "X-Response-Span-ID";
     public static final String X_RESPONSE_REQUEST_ID = "X-Response-Request-ID";
 
+    // Catalog Headers
+    public static final String X_CATALOG_EPOCH = "X-Catalog-Epoch";
+    public static final String X_CATALOG_VERSION = "X-Catalog-Version";
+
     // Client IP Headers
     public static final String X_FORWARDED_FOR = "X-Forwarded-For";
     public static final String X_REAL_IP = "X-Real-IP";
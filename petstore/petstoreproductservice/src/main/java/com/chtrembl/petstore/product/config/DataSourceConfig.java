@@ -1,12 +1,20 @@
 package com.chtrembl.petstore.product.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @Slf4j
@@ -21,16 +29,90 @@ public class DataSourceConfig {
     @Value("${dbPassword}")
     private String dbPassword;
 
+    @Value("${dbProductReplicaUrls:}")
+    private String dbReplicaUrls;
+
+    @Value("${petstore.datasource.replicas.strategy:ROUND_ROBIN}")
+    private ReadWriteRoutingDataSource.Strategy replicaStrategy;
+
+    @Value("${petstore.datasource.replicas.health-check-interval-ms:10000}")
+    private long replicaHealthCheckIntervalMs;
+
+    @Value("${petstore.datasource.pool.minimum-idle:2}")
+    private int minimumIdle;
+
+    @Value("${petstore.datasource.pool.maximum-size:10}")
+    private int maximumPoolSize;
+
+    @Value("${petstore.datasource.pool.connection-timeout-ms:30000}")
+    private long connectionTimeoutMs;
+
+    @Value("${petstore.datasource.pool.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    @Value("${petstore.datasource.pool.max-lifetime-ms:1800000}")
+    private long maxLifetimeMs;
+
+    @Value("${petstore.datasource.pool.validation-timeout-ms:5000}")
+    private long validationTimeoutMs;
+
+    @Value("${petstore.datasource.pool.leak-detection-threshold-ms:60000}")
+    private long leakDetectionThresholdMs;
+
     // Use these properties to configure your data source bean
-    @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setUrl(dbUrl);
-        dataSource.setUsername(dbUsername);
-        dataSource.setPassword(dbPassword);
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource routingDataSource(MeterRegistry meterRegistry) {
         log.info("dbUrl : {}",dbUrl);
         log.info("dbUsername : {}",dbUsername);
-        log.info("dbPassword : {}",dbPassword);
-        return dataSource;
+        HikariDataSource primary = createPool("productservice-primary", dbUrl, true, meterRegistry);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : StringUtils.commaDelimitedListToStringArray(dbReplicaUrls)) {
+            if (StringUtils.hasText(replicaUrl)) {
+                log.info("dbReplicaUrl : {}", replicaUrl.trim());
+                replicas.add(createPool("productservice-replica-" + replicas.size(), replicaUrl.trim(), false, meterRegistry));
+            }
+        }
+
+        return new ReadWriteRoutingDataSource(primary, replicas, replicaStrategy, replicaHealthCheckIntervalMs);
+    }
+
+    /**
+     * Read-only transactions are routed to replicas; the lazy proxy defers picking a physical
+     * connection until the transaction's read-only flag is known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Builds a HikariCP pool so physical (TLS) connections are reused instead of being opened per
+     * repository call. Pool gauges and the acquire-time timer are published as hikaricp.* meters.
+     */
+    private HikariDataSource createPool(String poolName, String jdbcUrl, boolean failFast,
+                                        MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(dbUsername);
+        config.setPassword(dbPassword);
+        config.setMinimumIdle(minimumIdle);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setConnectionTimeout(connectionTimeoutMs);
+        config.setIdleTimeout(idleTimeoutMs);
+        config.setMaxLifetime(maxLifetimeMs);
+        config.setValidationTimeout(validationTimeoutMs);
+        config.setLeakDetectionThreshold(leakDetectionThresholdMs);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        if (!failFast) {
+            // a replica that is down at startup must not prevent the service from starting
+            config.setInitializationFailTimeout(-1);
+        }
+
+        log.info("Creating connection pool {} (min idle {}, max size {}, max lifetime {}ms)",
+                poolName, minimumIdle, maximumPoolSize, maxLifetimeMs);
+        return new HikariDataSource(config);
     }
 }
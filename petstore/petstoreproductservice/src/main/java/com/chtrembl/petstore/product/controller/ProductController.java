@@ -1,7 +1,18 @@
 package com.chtrembl.petstore.product.controller;
 
+import com.chtrembl.petstore.product.model.NormalizedProducts;
 import com.chtrembl.petstore.product.model.Product;
+import com.chtrembl.petstore.product.model.ProductChanges;
+import com.chtrembl.petstore.product.model.ProductIdSet;
+import com.chtrembl.petstore.product.model.ProductPage;
+import com.chtrembl.petstore.product.model.ProductSearchResult;
+import com.chtrembl.petstore.product.service.ProductCatalog;
+import com.chtrembl.petstore.product.service.ProductRelatedService;
+import com.chtrembl.petstore.product.service.ProductSearchService;
 import com.chtrembl.petstore.product.service.ProductService;
+import com.chtrembl.petstore.product.service.ProductWatchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,16 +22,26 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+import static com.chtrembl.petstore.product.config.Constants.X_CATALOG_EPOCH;
+import static com.chtrembl.petstore.product.config.Constants.X_CATALOG_VERSION;
+
 @RestController
 @RequestMapping("/petstoreproductservice/v2")
 @Slf4j
@@ -29,6 +50,19 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ProductRelatedService productRelatedService;
+    private final ProductWatchService productWatchService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${petstore.pagination.max-limit:500}")
+    private int maxPageLimit;
+
+    @Value("${petstore.export.chunk-size:500}")
+    private int exportChunkSize;
+
+    @Value("${petstore.watch.max-timeout-ms:30000}")
+    private long maxWatchTimeoutMs;
 
     @Operation(
             summary = "Find products by status",
@@ -59,6 +93,176 @@ public class ProductController {
         }
     }
 
+    @Operation(
+            summary = "Find products by status (normalized)",
+            description = "Same products as findByStatus, with categories and tags listed once and referenced by id from each item"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products found successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = NormalizedProducts.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping(value = "/product/findByStatus", params = {"format=normalized", "!limit"})
+    public ResponseEntity<NormalizedProducts> findProductsByStatusNormalized(
+            @Parameter(description = "Status values that need to be considered for filter",
+                    required = true,
+                    example = "available")
+            @RequestParam(value = "status", required = true) List<String> status) {
+
+        log.info("Received GET request to /petstoreproductservice/v2/product/findByStatus (normalized) with status: {}", status);
+
+        try {
+            NormalizedProducts products = productService.findProductsByStatusNormalized(status);
+            log.info("Successfully found {} normalized products with status: {}", products.getItems().size(), status);
+            return ResponseEntity.ok(products);
+        } catch (Exception e) {
+            log.error("Error occurred while finding normalized products by status {}: {}", status, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(
+            summary = "Find products by status, one page at a time",
+            description = "Keyset pagination: pass the 'next' cursor of a page as 'after' to get the following page. "
+                    + "Requests without 'limit' keep returning the full list."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products page found successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping(value = "/product/findByStatus", params = "limit")
+    public ResponseEntity<ProductPage> findProductsByStatusPage(
+            @Parameter(description = "Status values that need to be considered for filter",
+                    required = true,
+                    example = "available")
+            @RequestParam(value = "status", required = true) List<String> status,
+            @Parameter(description = "Maximum number of products to return", required = true, example = "20")
+            @RequestParam(value = "limit") int limit,
+            @Parameter(description = "Cursor returned as 'next' by the previous page", example = "20")
+            @RequestParam(value = "after", required = false) Long after) {
+
+        log.info("Received GET request to /petstoreproductservice/v2/product/findByStatus with status: {}, limit: {}, after: {}",
+                status, limit, after);
+
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            ProductPage page = productService.findProductPageByStatus(status, after, Math.min(limit, maxPageLimit));
+            log.info("Successfully found {} products with status: {}, next: {}",
+                    page.getItems().size(), status, page.getNext());
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            log.error("Error occurred while finding products page by status {}: {}", status, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(
+            summary = "Get product ids by status",
+            description = "Returns the catalog version and the ascending ids of the products with the given status. "
+                    + "Conditional requests with the returned ETag are answered with 304 while the id set is unchanged."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ids retrieved successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductIdSet.class))),
+            @ApiResponse(responseCode = "304", description = "Id set unchanged", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping("/product/ids")
+    public ResponseEntity<ProductIdSet> findProductIds(
+            @Parameter(description = "Status values that need to be considered for filter",
+                    required = true,
+                    example = "available")
+            @RequestParam(value = "status", required = true) List<String> status,
+            WebRequest request) {
+
+        log.info("Received GET request to /petstoreproductservice/v2/product/ids with status: {}", status);
+
+        try {
+            ProductIdSet ids = productService.findProductIdsByStatus(status);
+            // content based, so every instance returns the same tag for the same id set
+            String etag = "\"" + ProductService.digestOf(ids.getIds()) + "\"";
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            log.info("Successfully found {} product ids with status: {} (version {})", ids.getIds().length, status,
+                    ids.getVersion());
+            return ResponseEntity.ok().eTag(etag).body(ids);
+        } catch (Exception e) {
+            log.error("Error occurred while finding product ids by status {}: {}", status, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(
+            summary = "Search products by facets",
+            description = "Returns the products matching all given facets (any of several statuses or categories, "
+                    + "all of several tags) together with per-facet counts over the matches"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search completed",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductSearchResult.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping("/product/search")
+    public ResponseEntity<ProductSearchResult> searchProducts(
+            @Parameter(description = "Category names, any of which matches", example = "Dog Toy")
+            @RequestParam(value = "category", required = false) List<String> category,
+            @Parameter(description = "Tag names, all of which must be present", example = "large")
+            @RequestParam(value = "tags", required = false) List<String> tags,
+            @Parameter(description = "Status values, any of which matches", example = "available")
+            @RequestParam(value = "status", required = false) List<String> status) {
+
+        log.info("Received GET request to /petstoreproductservice/v2/product/search with category: {}, tags: {}, status: {}",
+                category, tags, status);
+
+        try {
+            ProductSearchResult result = productSearchService.search(category, tags, status);
+            log.info("Product search matched {} products", result.getTotal());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            log.error("Error occurred while searching products: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(
+            summary = "Watch the catalog for changes",
+            description = "Long poll: answers as soon as the catalog version moves past sinceVersion, or with an "
+                    + "empty change set after the timeout. Without a matching epoch and version the full catalog "
+                    + "(restricted to the given statuses) is returned with reset=true"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes since the given version",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductChanges.class)))
+    })
+    @GetMapping("/product/watch")
+    public DeferredResult<ProductChanges> watchProducts(
+            @Parameter(description = "Catalog version the caller already holds", example = "12")
+            @RequestParam(value = "sinceVersion", required = false) Long sinceVersion,
+            @Parameter(description = "Epoch returned with that version")
+            @RequestParam(value = "epoch", required = false) String epoch,
+            @Parameter(description = "Status values to watch; products leaving them are reported as removed",
+                    example = "available")
+            @RequestParam(value = "status", required = false) List<String> status,
+            @Parameter(description = "How long to wait for a change, in milliseconds", example = "30000")
+            @RequestParam(value = "timeoutMs", required = false) Long timeoutMs) {
+
+        log.debug("Received GET request to /petstoreproductservice/v2/product/watch since version {}", sinceVersion);
+
+        long timeout = Math.min(timeoutMs != null && timeoutMs > 0 ? timeoutMs : maxWatchTimeoutMs, maxWatchTimeoutMs);
+        return productWatchService.watch(epoch, sinceVersion, status, timeout);
+    }
+
     @Operation(
             summary = "Find product by ID",
             description = "Returns a single product by its ID"
@@ -87,6 +291,34 @@ public class ProductController {
                 });
     }
 
+    @Operation(
+            summary = "Find related products",
+            description = "Returns the products most similar to the given one by shared category and tags, best first"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Related products retrieved successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Product.class))),
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+    })
+    @GetMapping("/product/{productId}/related")
+    public ResponseEntity<List<Product>> getRelatedProducts(
+            @Parameter(description = "ID of the product to find related products for", required = true, example = "1")
+            @PathVariable("productId") Long productId,
+            @Parameter(description = "Maximum number of products to return", example = "5")
+            @RequestParam(value = "limit", required = false) Integer limit) {
+
+        log.info("Received GET request to /petstoreproductservice/v2/product/{}/related", productId);
+
+        int max = limit != null && limit > 0 ? limit : Integer.MAX_VALUE;
+        return productRelatedService.findRelated(productId, max)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> {
+                    log.warn("Product with id {} not found", productId);
+                    return ResponseEntity.notFound().build();
+                });
+    }
+
     @Operation(
             summary = "Get all products",
             description = "Returns a list of all available products"
@@ -110,4 +342,105 @@ public class ProductController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @Operation(
+            summary = "Get all products (normalized)",
+            description = "Same products as /product/all, with categories and tags listed once and referenced by id from each item"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "All products retrieved successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = NormalizedProducts.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping(value = "/product/all", params = {"format=normalized", "!limit"})
+    public ResponseEntity<NormalizedProducts> getAllProductsNormalized() {
+        log.info("Received GET request to /petstoreproductservice/v2/product/all (normalized)");
+
+        try {
+            NormalizedProducts products = productService.getAllProductsNormalized();
+            log.info("Successfully retrieved all products normalized, count: {}", products.getItems().size());
+            return ResponseEntity.ok(products);
+        } catch (Exception e) {
+            log.error("Error occurred while retrieving normalized products: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(
+            summary = "Get all products, one page at a time",
+            description = "Keyset pagination: pass the 'next' cursor of a page as 'after' to get the following page. "
+                    + "Requests without 'limit' keep returning the full list."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products page retrieved successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProductPage.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    @GetMapping(value = "/product/all", params = "limit")
+    public ResponseEntity<ProductPage> getAllProductsPage(
+            @Parameter(description = "Maximum number of products to return", required = true, example = "20")
+            @RequestParam(value = "limit") int limit,
+            @Parameter(description = "Cursor returned as 'next' by the previous page", example = "20")
+            @RequestParam(value = "after", required = false) Long after) {
+        log.info("Received GET request to /petstoreproductservice/v2/product/all with limit: {}, after: {}", limit, after);
+
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            ProductPage page = productService.getProductPage(after, Math.min(limit, maxPageLimit));
+            log.info("Successfully retrieved products page, count: {}, next: {}", page.getItems().size(), page.getNext());
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            log.error("Error occurred while retrieving products page: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Operation(
+            summary = "Export the product catalog",
+            description = "Streams products as newline-delimited JSON (one product per line) in id order, from the "
+                    + "in-memory catalog once it is loaded. The client never holds more than one line. An export "
+                    + "from the catalog carries its epoch and version, the ones /product/watch reports, in the "
+                    + "X-Catalog-Epoch and X-Catalog-Version headers."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products streamed successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = Product.class)))
+    })
+    @GetMapping(value = "/product/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @Parameter(description = "Optional status values to export; all products when omitted",
+                    example = "available")
+            @RequestParam(value = "status", required = false) List<String> status) {
+
+        log.info("Received GET request to /petstoreproductservice/v2/product/export with status: {}", status);
+
+        ProductCatalog catalog = productService.findLoadedCatalog();
+        ObjectWriter writer = objectMapper.writerFor(Product.class);
+        StreamingResponseBody body = outputStream -> {
+            long exported = productService.exportProducts(catalog, status, exportChunkSize, product -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(product));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+            log.info("Successfully exported {} products with status: {}", exported, status);
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+        if (catalog != null) {
+            response.header(X_CATALOG_EPOCH, productWatchService.epochOf(catalog))
+                    .header(X_CATALOG_VERSION, String.valueOf(catalog.getVersion()));
+        }
+        return response.body(body);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.chtrembl.petstore.product.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Dictionary-encoded product list ({@code ?format=normalized}): every category and tag is listed once
+ * and items refer to them by id, instead of repeating the same objects in every product.
+ * <p>
+ * The pet service carries the same class for its model ({@code NormalizedPets}). The services
+ * share no code module, so keep both wire formats identical.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NormalizedProducts {
+    private List<Category> categories;
+    private List<Tag> tags;
+    private List<Item> items;
+
+    public static NormalizedProducts of(List<Product> products) {
+        Map<Long, Category> categories = new TreeMap<>();
+        Map<Long, Tag> tags = new TreeMap<>();
+        List<Item> items = new ArrayList<>(products.size());
+
+        for (Product product : products) {
+            Long categoryId = null;
+            if (product.getCategory() != null && product.getCategory().getId() != null) {
+                categoryId = product.getCategory().getId();
+                categories.putIfAbsent(categoryId, product.getCategory());
+            }
+            List<Long> tagIds = new ArrayList<>();
+            if (product.getTags() != null) {
+                for (Tag tag : product.getTags()) {
+                    // an id-less tag cannot be referenced, same as an id-less category
+                    if (tag.getId() != null) {
+                        tags.putIfAbsent(tag.getId(), tag);
+                        tagIds.add(tag.getId());
+                    }
+                }
+            }
+            items.add(new Item(product.getId(), product.getName(), product.getPhotoURL(), product.getStatus(), categoryId, tagIds));
+        }
+
+        return new NormalizedProducts(new ArrayList<>(categories.values()), new ArrayList<>(tags.values()), items);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private String name;
+
+        @JsonProperty("photoURL")
+        private String photoURL;
+
+        private Product.Status status;
+        private Long categoryId;
+        private List<Long> tagIds;
+    }
+}
@@ -5,12 +5,16 @@ import jakarta.persistence.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Data
 @Entity
-@Table(name = "product")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "product", indexes = @Index(name = "idx_product_status_id", columnList = "status, id"))
 public class Product {
     @Id
     private Long id;
@@ -29,10 +33,12 @@ public class Product {
 
     @Valid
     @ManyToMany(cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "product_tag", // Match the table name in the database
             joinColumns = @JoinColumn(name = "product_id"), // Match the column name in the database
-            inverseJoinColumns = @JoinColumn(name = "tag_id") // Match the column name in the database
+            inverseJoinColumns = @JoinColumn(name = "tag_id"), // Match the column name in the database
+            indexes = @Index(name = "idx_product_tag_product_id", columnList = "product_id")
     )
     private List<Tag> tags;
 
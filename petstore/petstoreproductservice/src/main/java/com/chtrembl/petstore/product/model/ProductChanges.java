@@ -0,0 +1,24 @@
+package com.chtrembl.petstore.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Answer to a catalog watch: the products added or changed and the ids removed (or moved out of
+ * the watched statuses) since the client's version. With {@code reset} set, {@code changed} is the
+ * complete catalog for the watched statuses and the client must drop whatever it held before
+ * (unknown or expired version, or another epoch).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChanges {
+    private String epoch;
+    private long version;
+    private boolean reset;
+    private List<Product> changed;
+    private List<Long> removed;
+}
@@ -0,0 +1,17 @@
+package com.chtrembl.petstore.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact existence view of the catalog: the snapshot version and the ascending ids of the
+ * matching products, so clients can validate ids with a binary search instead of holding products.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductIdSet {
+    private long version;
+    private long[] ids;
+}
@@ -0,0 +1,24 @@
+package com.chtrembl.petstore.product.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One keyset page of products")
+public class ProductPage {
+
+    @Schema(description = "Products in this page, ordered by id")
+    private List<Product> items;
+
+    @Schema(description = "Cursor to pass as 'after' for the next page; null on the last page", example = "20")
+    private String next;
+
+    @Schema(description = "Page size that was applied", example = "20")
+    private int limit;
+}
@@ -0,0 +1,21 @@
+package com.chtrembl.petstore.product.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a faceted product search: the matching products plus, per facet (status, category,
+ * tags), how many of the matches carry each value.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResult {
+    private int total;
+    private List<Product> items;
+    private Map<String, Map<String, Integer>> facets;
+}
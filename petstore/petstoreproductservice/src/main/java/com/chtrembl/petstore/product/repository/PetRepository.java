@@ -1,10 +1,58 @@
 package com.chtrembl.petstore.product.repository;
 
 import com.chtrembl.petstore.product.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Every read fetches category and tags with the product in a single statement; without the entity
+ * graph each product's tag collection is loaded separately when it is serialized (N+1).
+ */
 @Repository
 public interface PetRepository extends JpaRepository<Product, Long> {
-    // Define additional query methods if needed
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "tags"})
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "tags"})
+    Optional<Product> findById(Long id);
+
+    /**
+     * Status filter executed in the database ({@code status IN (:statuses)}), backed by the leading
+     * column of idx_product_status_id (status, id).
+     * Results go to the query cache when the second-level cache is enabled.
+     */
+    @EntityGraph(attributePaths = {"category", "tags"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Product> findByStatusInOrderByIdAsc(Collection<Product.Status> statuses);
+
+    /**
+     * Keyset page of ids: seeks past {@code after} on the primary key instead of using OFFSET.
+     * Ids are paged first so LIMIT applies in SQL and not to the tag fetch join.
+     */
+    @Query("select p.id from Product p where p.id > :after order by p.id")
+    List<Long> findIdsAfter(@Param("after") long after, Limit limit);
+
+    /**
+     * Keyset page of ids for a status filter, backed by idx_product_status_id (status, id).
+     */
+    @Query("select p.id from Product p where p.status in :statuses and p.id > :after order by p.id")
+    List<Long> findIdsByStatusAfter(@Param("statuses") Collection<Product.Status> statuses,
+                                    @Param("after") long after, Limit limit);
+
+    @EntityGraph(attributePaths = {"category", "tags"})
+    List<Product> findByIdInOrderByIdAsc(Collection<Long> ids);
 }
@@ -0,0 +1,169 @@
+package com.chtrembl.petstore.product.service;
+
+import com.chtrembl.petstore.product.model.Category;
+import com.chtrembl.petstore.product.model.Product;
+import com.chtrembl.petstore.product.model.Tag;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable, indexed snapshot of the product catalog.
+ * <p>
+ * Instances are built once per refresh by {@link ProductCatalogService} and swapped in atomically,
+ * so readers never see a partially built catalog and never need to lock.
+ */
+public final class ProductCatalog {
+
+    private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+
+    private final long version;
+    private final String epoch;
+    private final List<Product> products;
+    private final Map<Long, Product> productsById;
+    private final Map<Product.Status, List<Product>> productsByStatus;
+
+    private ProductCatalog(long version, String epoch, List<Product> products) {
+        this.version = version;
+        this.epoch = epoch;
+        this.products = products;
+
+        Map<Long, Product> byId = new HashMap<>(Math.max(16, products.size() * 4 / 3 + 1));
+        Map<Product.Status, List<Product>> byStatus = new EnumMap<>(Product.Status.class);
+        for (Product product : products) {
+            byId.put(product.getId(), product);
+            if (product.getStatus() != null) {
+                byStatus.computeIfAbsent(product.getStatus(), status -> new ArrayList<>()).add(product);
+            }
+        }
+        byStatus.replaceAll((status, list) -> List.copyOf(list));
+
+        this.productsById = Collections.unmodifiableMap(byId);
+        this.productsByStatus = Collections.unmodifiableMap(byStatus);
+    }
+
+    /**
+     * Builds a catalog from freshly loaded products. The products are copied so the snapshot holds no
+     * reference to persistence-context managed entities or lazy collections; a category or tag is
+     * copied once per build and shared by every product referencing it.
+     *
+     * @param epoch epoch of the database change counter the version was read from, or null for a
+     *              locally counted version
+     */
+    static ProductCatalog of(long version, String epoch, Collection<Product> loadedProducts) {
+        Map<Long, Category> categories = new HashMap<>();
+        Map<Long, Tag> tags = new HashMap<>();
+        List<Product> products = loadedProducts.stream()
+                .filter(product -> product.getId() != null)
+                .map(product -> copyOf(product, categories, tags))
+                .sorted(BY_ID)
+                .toList();
+        return new ProductCatalog(version, epoch, products);
+    }
+
+    /**
+     * Builds a catalog from products that are detached already and share their categories and tags,
+     * as {@link ProductSnapshotFile} decodes them, without copying them again.
+     */
+    static ProductCatalog ofDetached(long version, String epoch, List<Product> detachedProducts) {
+        List<Product> products = detachedProducts.stream()
+                .filter(product -> product.getId() != null)
+                .sorted(BY_ID)
+                .toList();
+        return new ProductCatalog(version, epoch, products);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Epoch of the database change counter the version was read from, or null when the version was
+     * counted locally. Versions are only ordered within one epoch.
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Whether both snapshots hold the same products, compared field by field. The copies made by
+     * {@link #of} use plain lists, so this is a real content comparison rather than a hash.
+     */
+    boolean hasSameContent(ProductCatalog other) {
+        return products.equals(other.products);
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    public List<Product> getAll() {
+        return products;
+    }
+
+    public Optional<Product> findById(Long productId) {
+        return Optional.ofNullable(productsById.get(productId));
+    }
+
+    /**
+     * Returns the products matching any of the given status names, ordered by id.
+     * Unknown status names are ignored, matching the previous filter-on-read behaviour.
+     */
+    public List<Product> findByStatus(Collection<String> statuses) {
+        Set<Product.Status> wanted = ProductService.parseStatuses(statuses);
+        if (wanted.isEmpty()) {
+            return List.of();
+        }
+        if (wanted.size() == 1) {
+            return productsByStatus.getOrDefault(wanted.iterator().next(), List.of());
+        }
+
+        List<Product> result = new ArrayList<>();
+        for (Product.Status status : wanted) {
+            result.addAll(productsByStatus.getOrDefault(status, List.of()));
+        }
+        result.sort(BY_ID);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Sorted ids of the products matching any of the given status names.
+     */
+    public long[] findIdsByStatus(Collection<String> statuses) {
+        return findByStatus(statuses).stream().mapToLong(Product::getId).toArray();
+    }
+
+    private static Product copyOf(Product source, Map<Long, Category> categories, Map<Long, Tag> tags) {
+        Product product = new Product();
+        product.setId(source.getId());
+        product.setName(source.getName());
+        product.setPhotoURL(source.getPhotoURL());
+        product.setStatus(source.getStatus());
+        product.setCategory(source.getCategory() == null ? null : copyOf(source.getCategory(), categories));
+        product.setTags(source.getTags() == null ? List.of()
+                : source.getTags().stream().map(tag -> copyOf(tag, tags)).toList());
+        return product;
+    }
+
+    private static Category copyOf(Category source, Map<Long, Category> categories) {
+        if (source.getId() == null) {
+            return new Category(null, source.getName());
+        }
+        return categories.computeIfAbsent(source.getId(), id -> new Category(id, source.getName()));
+    }
+
+    private static Tag copyOf(Tag source, Map<Long, Tag> tags) {
+        if (source.getId() == null) {
+            return new Tag(null, source.getName());
+        }
+        return tags.computeIfAbsent(source.getId(), id -> new Tag(id, source.getName()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.chtrembl.petstore.product.service;
+
+/**
+ * Published synchronously by {@link ProductCatalogService} after a new catalog version became
+ * current, so derived structures can be rebuilt off the request path.
+ */
+public final class ProductCatalogPublishedEvent {
+
+    private final ProductCatalog previous;
+    private final ProductCatalog catalog;
+
+    public ProductCatalogPublishedEvent(ProductCatalog previous, ProductCatalog catalog) {
+        this.previous = previous;
+        this.catalog = catalog;
+    }
+
+    /**
+     * The snapshot that was current before this one, or null for the first load.
+     */
+    public ProductCatalog getPrevious() {
+        return previous;
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+}
@@ -0,0 +1,193 @@
+package com.chtrembl.petstore.product.service;
+
+import com.chtrembl.petstore.product.model.Product;
+import com.chtrembl.petstore.product.repository.CatalogVersionRepository;
+import com.chtrembl.petstore.product.repository.CatalogVersionRepository.CatalogVersion;
+import com.chtrembl.petstore.product.repository.PetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the current {@link ProductCatalog} snapshot. The catalog is loaded lazily on first use and
+ * then refreshed in the background; a new snapshot is only published when the data changed, and
+ * each publication is announced with a {@link ProductCatalogPublishedEvent}.
+ * <p>
+ * When a {@link ProductSnapshotFile} is configured, the last published catalog is kept on local
+ * disk and loaded before the application starts taking requests, so reads are served at once and
+ * stay available while the database is slow; the first background refresh reconciles it.
+ * <p>
+ * A refresh first reads the database's change counter ({@link CatalogVersionRepository}) and only
+ * reloads the products when it moved; the counter also becomes the catalog version. Without the
+ * counter table (migrations not applied) every refresh reloads and compares contents, and versions
+ * are counted locally. This follows the pet service's {@code PetCatalogService}.
+ * <p>
+ * A reload that reads a lower counter than the current catalog's, including one published from the
+ * snapshot file, is only a replica that is behind when both come from the same counter epoch; the
+ * current catalog is kept until the counter moves. A lower counter from another epoch (database
+ * rebuilt) or replacing a locally counted version is published, so the published version can go
+ * down, but only together with a new epoch.
+ */
+@Service
+@Slf4j
+public class ProductCatalogService implements SmartInitializingSingleton {
+
+    private static final String CATALOG_NAME = "product";
+
+    private final PetRepository petRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSnapshotFile snapshotFile;
+    private final AtomicReference<ProductCatalog> catalog = new AtomicReference<>();
+
+    // data version the current catalog was last compared against; guarded by this
+    private CatalogVersion checkedDataVersion;
+    private boolean dataVersionMissingLogged;
+
+    public ProductCatalogService(PetRepository petRepository, CatalogVersionRepository catalogVersionRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher, ProductSnapshotFile snapshotFile) {
+        this.petRepository = petRepository;
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.eventPublisher = eventPublisher;
+        this.snapshotFile = snapshotFile;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // the data version and the products it labels come from one snapshot
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Returns the current snapshot, loading it synchronously if no snapshot has been built yet.
+     */
+    public ProductCatalog getCatalog() {
+        ProductCatalog current = catalog.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = catalog.get();
+            return current != null ? current : refresh();
+        }
+    }
+
+    public boolean isLoaded() {
+        return catalog.get() != null;
+    }
+
+    /**
+     * Warm start: publishes the snapshot file, if there is a usable one, before the scheduler and
+     * the web server start.
+     */
+    @Override
+    public synchronized void afterSingletonsInstantiated() {
+        if (!snapshotFile.isEnabled() || catalog.get() != null) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        snapshotFile.read().ifPresent(contents -> {
+            ProductCatalog loaded = ProductCatalog.ofDetached(contents.getVersion(), contents.getEpoch(),
+                    contents.getProducts());
+            catalog.set(loaded);
+            log.info("Published product catalog version {} with {} products from snapshot file in {}ms",
+                    loaded.getVersion(), loaded.size(), System.currentTimeMillis() - start);
+            eventPublisher.publishEvent(new ProductCatalogPublishedEvent(null, loaded));
+        });
+    }
+
+    @Scheduled(initialDelayString = "${petstore.catalog.initial-delay-ms:0}",
+            fixedDelayString = "${petstore.catalog.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Failed to refresh product catalog, keeping version {}: {}",
+                    catalog.get() != null ? catalog.get().getVersion() : "none", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reloads the catalog from the database if it changed since the last refresh and publishes it
+     * if its content differs.
+     *
+     * @return the snapshot that is current after the refresh
+     */
+    public synchronized ProductCatalog refresh() {
+        long start = System.currentTimeMillis();
+        ProductCatalog previous = catalog.get();
+        Optional<CatalogVersion> dataVersion = readDataVersion();
+        if (previous != null && dataVersion.isPresent() && dataVersion.get().equals(checkedDataVersion)) {
+            log.debug("Product catalog unchanged at data version {}, keeping version {}",
+                    checkedDataVersion, previous.getVersion());
+            snapshotFile.confirm(previous);
+            return previous;
+        }
+
+        boolean counted = dataVersion.isPresent();
+        long localVersion = previous != null ? previous.getVersion() + 1 : 1L;
+        long loadStart = System.currentTimeMillis();
+        ProductCatalog loaded = readOnlyTransaction.execute(status -> {
+            // read again in the loading transaction, so the version labels exactly these products
+            CatalogVersion counter = counted ? catalogVersionRepository.findVersion(CATALOG_NAME) : null;
+            List<Product> products = petRepository.findAll();
+            return counter != null ? ProductCatalog.of(counter.getVersion(), counter.getEpoch(), products)
+                    : ProductCatalog.of(localVersion, null, products);
+        });
+        log.info("Loaded {} products in {}ms", loaded.size(), System.currentTimeMillis() - loadStart);
+        checkedDataVersion = loaded.getEpoch() != null ? new CatalogVersion(loaded.getEpoch(), loaded.getVersion()) : null;
+        if (previous != null && loaded.getEpoch() != null && loaded.getEpoch().equals(previous.getEpoch())
+                && loaded.getVersion() < previous.getVersion()) {
+            // not reloaded again until the counter moves, which it does once the replica caught up
+            log.info("Product catalog reload saw data version {} behind version {}, keeping it",
+                    loaded.getVersion(), previous.getVersion());
+            return previous;
+        }
+
+        // a catalog from another counter epoch, or a locally numbered one once the counter is
+        // available, is published even with the same products, for its labels
+        if (previous != null && previous.hasSameContent(loaded)
+                && Objects.equals(previous.getEpoch(), loaded.getEpoch())) {
+            log.info("Product catalog unchanged after reload, keeping version {} ({}ms)",
+                    previous.getVersion(), System.currentTimeMillis() - start);
+            snapshotFile.confirm(previous);
+            return previous;
+        }
+
+        catalog.set(loaded);
+        log.info("Published product catalog version {} with {} products in {}ms",
+                loaded.getVersion(), loaded.size(), System.currentTimeMillis() - start);
+        eventPublisher.publishEvent(new ProductCatalogPublishedEvent(previous, loaded));
+        snapshotFile.write(loaded);
+        return loaded;
+    }
+
+    /**
+     * The database change counter, or empty when the counter table does not exist. Any other
+     * failure propagates so a refresh never mixes counted and locally numbered versions.
+     */
+    private Optional<CatalogVersion> readDataVersion() {
+        try {
+            CatalogVersion version = readOnlyTransaction.execute(status -> catalogVersionRepository.findVersion(CATALOG_NAME));
+            return Optional.ofNullable(version);
+        } catch (BadSqlGrammarException e) {
+            if (!dataVersionMissingLogged) {
+                dataVersionMissingLogged = true;
+                log.warn("No catalog_version table, product catalog refreshes reload every product: {}", e.getMessage());
+            }
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.chtrembl.petstore.product.service;
+
+import com.chtrembl.petstore.product.model.Product;
+import com.chtrembl.petstore.product.model.ProductSearchResult;
+import com.chtrembl.petstore.product.model.Tag;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bitmap index over one {@link ProductCatalog} version with one bitset per status, category name
+ * and tag name. Bit {@code i} stands for the product at position {@code i} of the catalog, so a
+ * facet query is a handful of bitset ORs/ANDs and facet counts are cardinalities of intersections.
+ */
+public final class ProductFacetIndex {
+
+    private final ProductCatalog catalog;
+    private final List<Product> products;
+    private final Map<Product.Status, BitSet> byStatus;
+    private final Map<String, BitSet> byCategory;
+    private final Map<String, BitSet> byTag;
+
+    private ProductFacetIndex(ProductCatalog catalog, List<Product> products, Map<Product.Status, BitSet> byStatus,
+                              Map<String, BitSet> byCategory, Map<String, BitSet> byTag) {
+        this.catalog = catalog;
+        this.products = products;
+        this.byStatus = byStatus;
+        this.byCategory = byCategory;
+        this.byTag = byTag;
+    }
+
+    static ProductFacetIndex build(ProductCatalog catalog) {
+        List<Product> products = catalog.getAll();
+        Map<Product.Status, BitSet> byStatus = new EnumMap<>(Product.Status.class);
+        Map<String, BitSet> byCategory = new HashMap<>();
+        Map<String, BitSet> byTag = new HashMap<>();
+
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            if (product.getStatus() != null) {
+                byStatus.computeIfAbsent(product.getStatus(), status -> new BitSet(products.size())).set(i);
+            }
+            if (product.getCategory() != null && product.getCategory().getName() != null) {
+                byCategory.computeIfAbsent(product.getCategory().getName(), name -> new BitSet(products.size())).set(i);
+            }
+            for (Tag tag : product.getTags()) {
+                if (tag.getName() != null) {
+                    byTag.computeIfAbsent(tag.getName(), name -> new BitSet(products.size())).set(i);
+                }
+            }
+        }
+        return new ProductFacetIndex(catalog, products, byStatus, byCategory, byTag);
+    }
+
+    /**
+     * The catalog snapshot this index was built from.
+     */
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Products matching every given dimension, in id order, with facet counts over the matches.
+     * Within a dimension, several statuses or categories match any of them, while several tags
+     * must all be present. An empty dimension does not filter.
+     */
+    public ProductSearchResult search(Collection<String> categories, Collection<String> tags,
+                                      Collection<String> statuses) {
+        BitSet matches = new BitSet(products.size());
+        matches.set(0, products.size());
+
+        if (statuses != null && !statuses.isEmpty()) {
+            BitSet anyStatus = new BitSet(products.size());
+            for (Product.Status status : ProductService.parseStatuses(statuses)) {
+                anyStatus.or(byStatus.getOrDefault(status, new BitSet()));
+            }
+            matches.and(anyStatus);
+        }
+        if (categories != null && !categories.isEmpty()) {
+            BitSet anyCategory = new BitSet(products.size());
+            for (String category : categories) {
+                anyCategory.or(byCategory.getOrDefault(category, new BitSet()));
+            }
+            matches.and(anyCategory);
+        }
+        if (tags != null) {
+            for (String tag : tags) {
+                matches.and(byTag.getOrDefault(tag, new BitSet()));
+            }
+        }
+
+        List<Product> items = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            items.add(products.get(i));
+        }
+
+        Map<String, Map<String, Integer>> facets = new TreeMap<>();
+        facets.put("status", counts(matches, byStatus));
+        facets.put("category", counts(matches, byCategory));
+        facets.put("tags", counts(matches, byTag));
+        return new ProductSearchResult(items.size(), items, facets);
+    }
+
+    private static Map<String, Integer> counts(BitSet matches, Map<?, BitSet> facet) {
+        Map<String, Integer> counts = new TreeMap<>();
+        BitSet scratch = new BitSet(matches.size());
+        facet.forEach((value, bits) -> {
+            scratch.clear();
+            scratch.or(matches);
+            scratch.and(bits);
+            int count = scratch.cardinality();
+            if (count > 0) {
+                counts.put(value.toString(), count);
+            }
+        });
+        return counts;
+    }
+}
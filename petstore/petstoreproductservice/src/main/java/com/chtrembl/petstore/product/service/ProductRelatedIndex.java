@@ -0,0 +1,285 @@
+package com.chtrembl.petstore.product.service;
+
+import com.chtrembl.petstore.product.model.Product;
+import com.chtrembl.petstore.product.model.Tag;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Precomputed top-K related products for one {@link ProductCatalog} version.
+ * <p>
+ * A product's features are its category and its tags. Candidates for a product are found through
+ * one bitset per feature (bit {@code i} is the product at catalog position {@code i}), and each
+ * candidate is scored by the Jaccard similarity of the two feature sets; ties go to the lower id.
+ * Lookups are a single map get.
+ * <p>
+ * Rebuilds are incremental. Products whose own features changed (or that are new) are rescored in
+ * full, and so are products whose previous list held a changed or removed product. Any other
+ * product sharing a feature with a changed one only merges those changed products into its
+ * previous list: none of its other candidates changed, so their ranking still holds. Everything
+ * else keeps its list. A broad feature such as a common category therefore costs one merge per
+ * product sharing it, not a full candidate scan. Scoring runs in parallel across products.
+ */
+public final class ProductRelatedIndex {
+
+    private static final long[] NONE = new long[0];
+
+    private final ProductCatalog catalog;
+    private final int topK;
+    private final Map<Long, long[]> relatedIds;
+    private final Map<Long, Set<String>> featuresById;
+    private final int rescored;
+
+    private ProductRelatedIndex(ProductCatalog catalog, int topK, Map<Long, long[]> relatedIds,
+                                Map<Long, Set<String>> featuresById, int rescored) {
+        this.catalog = catalog;
+        this.topK = topK;
+        this.relatedIds = relatedIds;
+        this.featuresById = featuresById;
+        this.rescored = rescored;
+    }
+
+    /**
+     * Builds the index for {@code catalog}, reusing the lists of {@code previous} (may be null)
+     * for products the change cannot have affected.
+     */
+    static ProductRelatedIndex build(ProductCatalog catalog, int topK, ProductRelatedIndex previous) {
+        List<Product> products = catalog.getAll();
+        int size = products.size();
+
+        Map<String, Integer> featureIds = new HashMap<>();
+        Map<Long, Set<String>> featuresById = new HashMap<>(Math.max(16, size * 4 / 3 + 1));
+        int[][] features = new int[size][];
+        for (int i = 0; i < size; i++) {
+            Set<String> names = featuresOf(products.get(i));
+            featuresById.put(products.get(i).getId(), names);
+            features[i] = names.stream()
+                    .mapToInt(name -> featureIds.computeIfAbsent(name, n -> featureIds.size()))
+                    .sorted()
+                    .toArray();
+        }
+
+        BitSet[] postings = new BitSet[featureIds.size()];
+        for (int i = 0; i < size; i++) {
+            for (int feature : features[i]) {
+                if (postings[feature] == null) {
+                    postings[feature] = new BitSet(size);
+                }
+                postings[feature].set(i);
+            }
+        }
+
+        long[][] related = new long[size][];
+        BitSet changed = null;
+        BitSet rescore = null;
+        if (previous != null && previous.topK == topK) {
+            changed = changed(products, featuresById, previous);
+            rescore = rescoreSet(products, featuresById, changed, previous);
+        }
+        if (rescore == null) {
+            rescore = new BitSet(size);
+            rescore.set(0, size);
+        } else {
+            patch(products, features, postings, topK, previous, changed, rescore, related);
+        }
+        rescore.stream().parallel().forEach(i -> related[i] = score(i, candidatesOf(i, features, postings, size),
+                products, features, topK));
+
+        Map<Long, long[]> relatedIds = new HashMap<>(Math.max(16, size * 4 / 3 + 1));
+        for (int i = 0; i < size; i++) {
+            Long id = products.get(i).getId();
+            relatedIds.put(id, related[i] != null ? related[i] : previous.relatedIds.getOrDefault(id, NONE));
+        }
+        return new ProductRelatedIndex(catalog, topK, relatedIds, featuresById, rescore.cardinality());
+    }
+
+    /**
+     * The catalog snapshot this index was built from.
+     */
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Number of products scored by the build that produced this index.
+     */
+    public int getRescored() {
+        return rescored;
+    }
+
+    /**
+     * Ids of the products related to {@code productId}, best first, or null if the product is not
+     * in this catalog version.
+     */
+    public long[] findRelatedIds(Long productId) {
+        return relatedIds.get(productId);
+    }
+
+    /**
+     * Positions of the products that are new or whose features changed.
+     */
+    private static BitSet changed(List<Product> products, Map<Long, Set<String>> featuresById,
+                                  ProductRelatedIndex previous) {
+        BitSet changed = new BitSet(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            Long id = products.get(i).getId();
+            if (!Objects.equals(previous.featuresById.get(id), featuresById.get(id))) {
+                changed.set(i);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Products to rescore in full: the changed ones and those whose previous list held a changed or
+     * removed product. Null when that is more than half the catalog; a full rebuild then costs
+     * about the same and is simpler to reason about.
+     */
+    private static BitSet rescoreSet(List<Product> products, Map<Long, Set<String>> featuresById, BitSet changed,
+                                     ProductRelatedIndex previous) {
+        Set<Long> changedIds = new HashSet<>();
+        changed.stream().forEach(i -> changedIds.add(products.get(i).getId()));
+        previous.featuresById.keySet().forEach(id -> {
+            if (!featuresById.containsKey(id)) {
+                changedIds.add(id);
+            }
+        });
+        if (changedIds.isEmpty()) {
+            return changed;
+        }
+
+        BitSet rescore = (BitSet) changed.clone();
+        for (int i = 0; i < products.size(); i++) {
+            for (long relatedId : previous.relatedIds.getOrDefault(products.get(i).getId(), NONE)) {
+                if (changedIds.contains(relatedId)) {
+                    rescore.set(i);
+                    break;
+                }
+            }
+        }
+        return rescore.cardinality() > products.size() / 2 ? null : rescore;
+    }
+
+    /**
+     * Merges the changed products into the previous lists of the other products that share a
+     * feature with them. Products in {@code rescore} are skipped; the rest get their result in
+     * {@code related}.
+     */
+    private static void patch(List<Product> products, int[][] features, BitSet[] postings, int topK,
+                              ProductRelatedIndex previous, BitSet changed, BitSet rescore, long[][] related) {
+        int size = products.size();
+        // similarity is symmetric, so the products that gain a changed candidate are its candidates
+        Map<Integer, BitSet> additions = new HashMap<>();
+        for (int c = changed.nextSetBit(0); c >= 0; c = changed.nextSetBit(c + 1)) {
+            BitSet neighbours = candidatesOf(c, features, postings, size);
+            neighbours.andNot(rescore);
+            for (int u = neighbours.nextSetBit(0); u >= 0; u = neighbours.nextSetBit(u + 1)) {
+                additions.computeIfAbsent(u, key -> new BitSet(size)).set(c);
+            }
+        }
+
+        long[] ids = products.stream().mapToLong(Product::getId).toArray();
+        additions.entrySet().parallelStream().forEach(entry -> {
+            int u = entry.getKey();
+            BitSet candidates = entry.getValue();
+            for (long relatedId : previous.relatedIds.getOrDefault(ids[u], NONE)) {
+                int position = Arrays.binarySearch(ids, relatedId);
+                if (position >= 0) {
+                    candidates.set(position);
+                }
+            }
+            related[u] = score(u, candidates, products, features, topK);
+        });
+    }
+
+    private static BitSet candidatesOf(int position, int[][] features, BitSet[] postings, int size) {
+        BitSet candidates = new BitSet(size);
+        for (int feature : features[position]) {
+            candidates.or(postings[feature]);
+        }
+        candidates.clear(position);
+        return candidates;
+    }
+
+    private static long[] score(int position, BitSet candidates, List<Product> products, int[][] features,
+                                int topK) {
+        int[] own = features[position];
+        if (own.length == 0 || topK <= 0) {
+            return NONE;
+        }
+
+        // min-heap on (score, -id): the head is the weakest of the current top K
+        PriorityQueue<Scored> best = new PriorityQueue<>(topK + 1);
+        for (int j = candidates.nextSetBit(0); j >= 0; j = candidates.nextSetBit(j + 1)) {
+            int shared = intersection(own, features[j]);
+            Scored candidate = new Scored(products.get(j).getId(),
+                    (double) shared / (own.length + features[j].length - shared));
+            if (best.size() < topK) {
+                best.add(candidate);
+            } else if (candidate.compareTo(best.peek()) > 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        long[] ids = new long[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = best.poll().id;
+        }
+        return ids;
+    }
+
+    private static int intersection(int[] a, int[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    private static Set<String> featuresOf(Product product) {
+        Set<String> features = new TreeSet<>();
+        if (product.getCategory() != null && product.getCategory().getName() != null) {
+            features.add("category:" + product.getCategory().getName());
+        }
+        for (Tag tag : product.getTags()) {
+            if (tag.getName() != null) {
+                features.add("tag:" + tag.getName());
+            }
+        }
+        return features;
+    }
+
+    private static final class Scored implements Comparable<Scored> {
+        private final long id;
+        private final double score;
+
+        private Scored(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Scored other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : Long.compare(other.id, id);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.chtrembl.petstore.product.service;
+
+import com.chtrembl.petstore.product.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps a {@link ProductRelatedIndex} in step with the catalog snapshot. The index is rebuilt
+ * incrementally from the previous one whenever another catalog is published, whatever its version
+ * (versions go down with a new counter epoch), so a request only resolves the precomputed ids
+ * against the catalog the index was built from.
+ */
+@Service
+@Slf4j
+public class ProductRelatedService {
+
+    private final ProductCatalogService productCatalogService;
+    private final AtomicReference<ProductRelatedIndex> index = new AtomicReference<>();
+
+    @Value("${petstore.related.top-k:10}")
+    private int topK;
+
+    public ProductRelatedService(ProductCatalogService productCatalogService) {
+        this.productCatalogService = productCatalogService;
+    }
+
+    /**
+     * Up to {@code limit} products related to the given one, best first, or empty if the product
+     * does not exist.
+     */
+    public Optional<List<Product>> findRelated(Long productId, int limit) {
+        ProductRelatedIndex current = currentIndex();
+        ProductCatalog catalog = current.getCatalog();
+        long[] ids = current.findRelatedIds(productId);
+        if (ids == null) {
+            return Optional.empty();
+        }
+
+        List<Product> related = new ArrayList<>(Math.min(limit, ids.length));
+        for (int i = 0; i < ids.length && related.size() < limit; i++) {
+            catalog.findById(ids[i]).ifPresent(related::add);
+        }
+        return Optional.of(related);
+    }
+
+    @EventListener
+    public void onCatalogPublished(ProductCatalogPublishedEvent event) {
+        rebuild();
+    }
+
+    private ProductRelatedIndex currentIndex() {
+        ProductRelatedIndex current = index.get();
+        if (current != null && current.getCatalog() == productCatalogService.getCatalog()) {
+            return current;
+        }
+        return rebuild();
+    }
+
+    /**
+     * Indexes the catalog that is current now, not the one a caller saw, so a late caller never
+     * puts an index for an older catalog back.
+     */
+    private synchronized ProductRelatedIndex rebuild() {
+        ProductCatalog catalog = productCatalogService.getCatalog();
+        ProductRelatedIndex previous = index.get();
+        if (previous != null && previous.getCatalog() == catalog) {
+            return previous;
+        }
+
+        long start = System.nanoTime();
+        ProductRelatedIndex built = ProductRelatedIndex.build(catalog, topK, previous);
+        index.set(built);
+        log.info("Built related product index for catalog version {} ({} of {} products rescored) in {}us",
+                catalog.getVersion(), built.getRescored(), catalog.size(), (System.nanoTime() - start) / 1_000);
+        return built;
+    }
+}
@@ -0,0 +1,62 @@
+package com.chtrembl.petstore.product.service;
+
+import com.chtrembl.petstore.product.model.ProductSearchResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps a {@link ProductFacetIndex} in step with the catalog snapshot. The index is rebuilt whenever
+ * another catalog is published, whatever its version (versions go down with a new counter epoch);
+ * searches never touch the database.
+ */
+@Service
+@Slf4j
+public class ProductSearchService {
+
+    private final ProductCatalogService productCatalogService;
+    private final AtomicReference<ProductFacetIndex> index = new AtomicReference<>();
+
+    public ProductSearchService(ProductCatalogService productCatalogService) {
+        this.productCatalogService = productCatalogService;
+    }
+
+    public ProductSearchResult search(List<String> categories, List<String> tags, List<String> statuses) {
+        return currentIndex().search(categories, tags, statuses);
+    }
+
+    @EventListener
+    public void onCatalogPublished(ProductCatalogPublishedEvent event) {
+        rebuild();
+    }
+
+    private ProductFacetIndex currentIndex() {
+        ProductFacetIndex current = index.get();
+        if (current != null && current.getCatalog() == productCatalogService.getCatalog()) {
+            return current;
+        }
+        return rebuild();
+    }
+
+    /**
+     * Indexes the catalog that is current now, not the one a caller saw, so a late caller never
+     * puts an index for an older catalog back.
+     */
+    private synchronized ProductFacetIndex rebuild() {
+        ProductCatalog catalog = productCatalogService.getCatalog();
+        ProductFacetIndex previous = index.get();
+        if (previous != null && previous.getCatalog() == catalog) {
+            return previous;
+        }
+
+        long start = System.nanoTime();
+        ProductFacetIndex built = ProductFacetIndex.build(catalog);
+        index.set(built);
+        log.info("Built product facet index for catalog version {} in {}us",
+                catalog.getVersion(), (System.nanoTime() - start) / 1_000);
+        return built;
+    }
+}
@@ -1,45 +1,276 @@
 package com.chtrembl.petstore.product.service;
 
+import com.chtrembl.petstore.product.model.NormalizedProducts;
 import com.chtrembl.petstore.product.model.Product;
+import com.chtrembl.petstore.product.model.ProductIdSet;
+import com.chtrembl.petstore.product.model.ProductPage;
 import com.chtrembl.petstore.product.repository.PetRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
 public class ProductService {
 
     private final PetRepository petRepository;
+    private final ProductCatalogService productCatalogService;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public ProductService(PetRepository petRepository) {
+    public ProductService(PetRepository petRepository, ProductCatalogService productCatalogService,
+                          PlatformTransactionManager transactionManager) {
         this.petRepository = petRepository;
+        this.productCatalogService = productCatalogService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
+    /**
+     * Served from the catalog snapshot once one is published (from the database or the warm-start
+     * file); until then the filter is pushed down to the database.
+     */
+    @Transactional(readOnly = true)
     public List<Product> findProductsByStatus(List<String> status) {
         log.info("Finding products with status: {}", status);
 
-        return getAllProducts().stream()
-                .filter(product -> status.contains(product.getStatus().toString()))
-                .toList();
+        if (productCatalogService.isLoaded()) {
+            return productCatalogService.getCatalog().findByStatus(status);
+        }
+
+        Set<Product.Status> statuses = parseStatuses(status);
+        if (statuses.isEmpty()) {
+            return List.of();
+        }
+        return petRepository.findByStatusInOrderByIdAsc(statuses);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Product> findProductById(Long productId) {
         log.info("Finding product with id: {}", productId);
 
-        return getAllProducts().stream()
-                .filter(product -> product.getId().equals(productId))
-                .findFirst();
+        if (productCatalogService.isLoaded()) {
+            return productCatalogService.getCatalog().findById(productId);
+        }
+        return petRepository.findById(productId);
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         log.info("Getting all products");
+
+        if (productCatalogService.isLoaded()) {
+            return productCatalogService.getCatalog().getAll();
+        }
         return petRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public NormalizedProducts findProductsByStatusNormalized(List<String> status) {
+        return NormalizedProducts.of(findProductsByStatus(status));
+    }
+
+    @Transactional(readOnly = true)
+    public NormalizedProducts getAllProductsNormalized() {
+        return NormalizedProducts.of(getAllProducts());
+    }
+
+    /**
+     * Returns the page of products whose id is greater than {@code after}, from the catalog snapshot
+     * once one is published.
+     */
+    @Transactional(readOnly = true)
+    public ProductPage getProductPage(Long after, int limit) {
+        log.info("Getting products page after {} with limit {}", after, limit);
+
+        if (productCatalogService.isLoaded()) {
+            return toPage(productCatalogService.getCatalog().getAll(), cursorOf(after), limit);
+        }
+        List<Long> ids = petRepository.findIdsAfter(cursorOf(after), Limit.of(limit + 1));
+        return toPage(ids, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPage findProductPageByStatus(List<String> status, Long after, int limit) {
+        log.info("Finding products page with status: {} after {} with limit {}", status, after, limit);
+
+        Set<Product.Status> statuses = parseStatuses(status);
+        if (statuses.isEmpty()) {
+            return new ProductPage(List.of(), null, limit);
+        }
+        if (productCatalogService.isLoaded()) {
+            return toPage(productCatalogService.getCatalog().findByStatus(status), cursorOf(after), limit);
+        }
+        List<Long> ids = petRepository.findIdsByStatusAfter(statuses, cursorOf(after), Limit.of(limit + 1));
+        return toPage(ids, limit);
+    }
+
+    /**
+     * The published catalog snapshot, or null while the database is still read directly. Taken once
+     * per request, so what is served and the version it is labelled with agree.
+     */
+    public ProductCatalog findLoadedCatalog() {
+        return productCatalogService.isLoaded() ? productCatalogService.getCatalog() : null;
+    }
+
+    /**
+     * Hands every product to the consumer in id order. A null or empty status list exports every
+     * product.
+     * <p>
+     * Given a catalog snapshot (see {@link #findLoadedCatalog()}) the export is served from it and
+     * never touches the database. Without one the catalog is walked one keyset chunk at a time, so
+     * only a single chunk is held in memory; each chunk is read in its own short read-only
+     * transaction, so exports go to the read replicas and no connection is held while the consumer
+     * writes to a slow client.
+     *
+     * @return the number of exported products
+     */
+    public long exportProducts(ProductCatalog catalog, List<String> status, int chunkSize,
+                               Consumer<Product> consumer) {
+        boolean allStatuses = status == null || status.isEmpty();
+        Set<Product.Status> statuses = allStatuses ? EnumSet.allOf(Product.Status.class) : parseStatuses(status);
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+        if (catalog != null) {
+            List<Product> products = allStatuses ? catalog.getAll() : catalog.findByStatus(status);
+            products.forEach(consumer);
+            return products.size();
+        }
+
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        long cursor = Long.MIN_VALUE;
+        long exported = 0;
+        while (true) {
+            long after = cursor;
+            chunk.clear();
+            List<Long> ids = readOnlyTransaction.execute(tx -> {
+                List<Long> page = allStatuses
+                        ? petRepository.findIdsAfter(after, Limit.of(chunkSize))
+                        : petRepository.findIdsByStatusAfter(statuses, after, Limit.of(chunkSize));
+                if (!page.isEmpty()) {
+                    chunk.addAll(petRepository.findByIdInOrderByIdAsc(page));
+                }
+                return page;
+            });
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+
+            chunk.forEach(consumer);
+            exported += chunk.size();
+            cursor = ids.get(ids.size() - 1);
+
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+        return exported;
+    }
+
+    /**
+     * Ids of the products with the given status, taken from the catalog snapshot.
+     */
+    public ProductIdSet findProductIdsByStatus(List<String> status) {
+        ProductCatalog catalog = productCatalogService.getCatalog();
+        return new ProductIdSet(catalog.getVersion(), catalog.findIdsByStatus(status));
+    }
+
+    /**
+     * SHA-256 of the ids as big-endian longs, hex encoded. Depends only on the id set, so every
+     * instance derives the same value for the same ids whatever catalog version it holds.
+     */
+    public static String digestOf(long[] ids) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 512);
+        for (long id : ids) {
+            if (!buffer.hasRemaining()) {
+                digest.update(buffer.flip());
+                buffer.clear();
+            }
+            buffer.putLong(id);
+        }
+        digest.update(buffer.flip());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @Transactional(readOnly = true)
     public int getProductCount() {
-        return petRepository.findAll().size();
+        if (productCatalogService.isLoaded()) {
+            return productCatalogService.getCatalog().size();
+        }
+        return (int) petRepository.count();
+    }
+
+    /**
+     * One extra id is requested so the last page can be detected without an empty trailing page.
+     */
+    private ProductPage toPage(List<Long> ids, int limit) {
+        boolean hasMore = ids.size() > limit;
+        List<Long> pageIds = hasMore ? ids.subList(0, limit) : ids;
+        List<Product> products = pageIds.isEmpty() ? List.of() : petRepository.findByIdInOrderByIdAsc(pageIds);
+        String next = hasMore ? String.valueOf(pageIds.get(pageIds.size() - 1)) : null;
+        return new ProductPage(products, next, limit);
+    }
+
+    /**
+     * One page of an id-ordered catalog list; the start is found by binary search on the ids.
+     */
+    private static ProductPage toPage(List<Product> products, long after, int limit) {
+        int low = 0;
+        int high = products.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (products.get(mid).getId() <= after) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int to = Math.min(products.size(), low + limit);
+        List<Product> page = List.copyOf(products.subList(low, to));
+        String next = to < products.size() ? String.valueOf(page.get(page.size() - 1).getId()) : null;
+        return new ProductPage(page, next, limit);
+    }
+
+    private static long cursorOf(Long after) {
+        return after != null ? after : Long.MIN_VALUE;
+    }
+
+    /**
+     * Unknown status names are ignored, matching the previous filter-on-read behaviour.
+     */
+    static Set<Product.Status> parseStatuses(Collection<String> statuses) {
+        Set<Product.Status> parsed = EnumSet.noneOf(Product.Status.class);
+        if (statuses == null) {
+            return parsed;
+        }
+        for (String status : statuses) {
+            for (Product.Status candidate : Product.Status.values()) {
+                if (candidate.name().equals(status)) {
+                    parsed.add(candidate);
+                }
+            }
+        }
+        return parsed;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,272 @@
+package com.chtrembl.petstore.product.service;
+
+import com.chtrembl.petstore.product.model.Category;
+import com.chtrembl.petstore.product.model.Product;
+import com.chtrembl.petstore.product.model.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Local, versioned binary copy of the product catalog used for warm starts.
+ * <p>
+ * Layout (big-endian): magic, format version, write time, catalog version, the epoch of the
+ * database counter that version was read from (null for a locally counted version), product count,
+ * the products, and a trailing CRC32C over everything before it. Strings are length-prefixed UTF-8 with -1 for null.
+ * Files are written to a sibling temp file and atomically moved into place, and read through a
+ * read-only memory mapping, so a reader never sees a half-written snapshot and the load costs no
+ * read syscalls or intermediate buffers. A file that is missing, corrupt, of another format
+ * version or older than {@code petstore.catalog.snapshot.max-age-ms} is ignored.
+ */
+@Component
+@Slf4j
+public class ProductSnapshotFile {
+
+    private static final int MAGIC = 0x50435331; // "PCS1"
+    private static final int FORMAT_VERSION = 3;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4;
+    private static final int CRC_BYTES = 8;
+
+    private final Path path;
+    private final long maxAgeMs;
+    private volatile long writtenAt;
+
+    public ProductSnapshotFile(@Value("${petstore.catalog.snapshot.path:}") String path,
+                               @Value("${petstore.catalog.snapshot.max-age-ms:86400000}") long maxAgeMs) {
+        this.path = path == null || path.isBlank() ? null : Path.of(path);
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    /**
+     * Reads the snapshot, or returns empty if there is no usable one.
+     */
+    public Optional<Contents> read() {
+        if (path == null || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + CRC_BYTES || size > Integer.MAX_VALUE) {
+                log.warn("Ignoring product snapshot {}: unexpected size {}", path, size);
+                return Optional.empty();
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate().limit((int) size - CRC_BYTES));
+            if (crc.getValue() != buffer.getLong((int) size - CRC_BYTES)) {
+                log.warn("Ignoring product snapshot {}: checksum mismatch", path);
+                return Optional.empty();
+            }
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.warn("Ignoring product snapshot {}: unknown format", path);
+                return Optional.empty();
+            }
+            long fileWrittenAt = buffer.getLong();
+            if (System.currentTimeMillis() - fileWrittenAt > maxAgeMs) {
+                log.info("Ignoring product snapshot {}: written {}ms ago", path, System.currentTimeMillis() - fileWrittenAt);
+                return Optional.empty();
+            }
+            writtenAt = fileWrittenAt;
+            long version = buffer.getLong();
+            String epoch = readString(buffer);
+
+            return Optional.of(new Contents(version, epoch, decode(buffer)));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable product snapshot {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Rewrites the snapshot for a catalog the database just confirmed unchanged, once the copy on
+     * disk is half way to its maximum age, so a long-lived instance always leaves a usable file.
+     */
+    public void confirm(ProductCatalog catalog) {
+        if (path != null && System.currentTimeMillis() - writtenAt > maxAgeMs / 2) {
+            write(catalog);
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the given catalog. Failures are logged; the service keeps running
+     * without a warm-start copy.
+     */
+    public void write(ProductCatalog catalog) {
+        if (path == null) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (OutputStream file = Files.newOutputStream(temp)) {
+                CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32C());
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(start);
+                out.writeLong(catalog.getVersion());
+                writeString(out, catalog.getEpoch());
+                encode(out, catalog.getAll());
+                out.flush();
+                // the checksum itself is not part of the checked bytes
+                new DataOutputStream(file).writeLong(checked.getChecksum().getValue());
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writtenAt = start;
+            log.info("Wrote product snapshot {} for catalog version {} ({} products) in {}ms",
+                    path, catalog.getVersion(), catalog.size(), System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write product snapshot {}: {}", path, e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // best effort
+            }
+        }
+    }
+
+    private static void encode(DataOutputStream out, List<Product> products) throws IOException {
+        out.writeInt(products.size());
+        for (Product product : products) {
+            out.writeLong(product.getId());
+            out.writeByte(product.getStatus() != null ? product.getStatus().ordinal() : -1);
+            writeString(out, product.getName());
+            writeString(out, product.getPhotoURL());
+
+            Category category = product.getCategory();
+            out.writeBoolean(category != null);
+            if (category != null) {
+                out.writeLong(category.getId() != null ? category.getId() : Long.MIN_VALUE);
+                writeString(out, category.getName());
+            }
+
+            List<Tag> tags = product.getTags() != null ? product.getTags() : List.of();
+            out.writeInt(tags.size());
+            for (Tag tag : tags) {
+                out.writeLong(tag.getId() != null ? tag.getId() : Long.MIN_VALUE);
+                writeString(out, tag.getName());
+            }
+        }
+    }
+
+    /**
+     * Categories and tags are shared between products, as {@link ProductCatalog#of} shares them for
+     * a database load; the decoded products are detached already and go into the catalog as they are.
+     */
+    private static List<Product> decode(ByteBuffer buffer) {
+        Product.Status[] statuses = Product.Status.values();
+        Map<Long, Category> categories = new HashMap<>();
+        Map<Long, Tag> tags = new HashMap<>();
+
+        int count = buffer.getInt();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId(buffer.getLong());
+            byte status = buffer.get();
+            product.setStatus(status >= 0 ? statuses[status] : null);
+            product.setName(readString(buffer));
+            product.setPhotoURL(readString(buffer));
+
+            if (buffer.get() != 0) {
+                long categoryId = buffer.getLong();
+                String categoryName = readString(buffer);
+                product.setCategory(categoryId == Long.MIN_VALUE ? new Category(null, categoryName)
+                        : categories.computeIfAbsent(categoryId, id -> new Category(id, categoryName)));
+            }
+
+            int tagCount = buffer.getInt();
+            List<Tag> productTags = new ArrayList<>(tagCount);
+            for (int t = 0; t < tagCount; t++) {
+                long tagId = buffer.getLong();
+                String tagName = readString(buffer);
+                productTags.add(tagId == Long.MIN_VALUE ? new Tag(null, tagName)
+                        : tags.computeIfAbsent(tagId, id -> new Tag(id, tagName)));
+            }
+            product.setTags(productTags);
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * A snapshot read back from disk.
+     */
+    public static final class Contents {
+        private final long version;
+        private final String epoch;
+        private final List<Product> products;
+
+        private Contents(long version, String epoch, List<Product> products) {
+            this.version = version;
+            this.epoch = epoch;
+            this.products = products;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Epoch of the database counter the version was read from, or null if it was counted locally.
+         */
+        public String getEpoch() {
+            return epoch;
+        }
+
+        public List<Product> getProducts() {
+            return products;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,208 @@
+package com.chtrembl.petstore.product.service;
+
+import com.chtrembl.petstore.product.model.Product;
+import com.chtrembl.petstore.product.model.ProductChanges;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Long-poll change feed over the catalog snapshot, optionally restricted to some statuses.
+ * <p>
+ * Every published version records which product ids it touched. A watch that is behind is
+ * answered at once from that history; a watch that is current, or ahead of this instance, is
+ * parked as a {@link DeferredResult} (no request thread is held) until the next version is
+ * published or the timeout expires. A product that left the requested statuses is reported as
+ * removed.
+ * <p>
+ * Versions taken from the database change counter mean the same on every instance and carry the
+ * counter's epoch, a random token stored with the counter, so a client moving between instances
+ * keeps receiving deltas while a counter that starts over comes with a new epoch. Locally counted
+ * versions carry this instance's random epoch instead. A watch from another epoch, or older than
+ * the retained history, gets a full reset.
+ */
+@Service
+@Slf4j
+public class ProductWatchService {
+
+    private final String localEpoch = UUID.randomUUID().toString();
+    private final ProductCatalogService productCatalogService;
+    private final Deque<Delta> history = new ArrayDeque<>();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    @Value("${petstore.watch.history-size:100}")
+    private int historySize;
+
+    public ProductWatchService(ProductCatalogService productCatalogService) {
+        this.productCatalogService = productCatalogService;
+    }
+
+    public DeferredResult<ProductChanges> watch(String clientEpoch, Long sinceVersion, List<String> status,
+                                                long timeoutMs) {
+        // null: every product, whatever its status
+        Set<Product.Status> statuses = status == null || status.isEmpty() ? null : ProductService.parseStatuses(status);
+        DeferredResult<ProductChanges> result = new DeferredResult<>(timeoutMs,
+                () -> noChanges(productCatalogService.getCatalog()));
+
+        Optional<ProductChanges> available = changesSince(clientEpoch, sinceVersion, statuses);
+        if (available.isPresent()) {
+            result.setResult(available.get());
+            return result;
+        }
+
+        Waiter waiter = new Waiter(clientEpoch, sinceVersion, statuses, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+
+        // a version published between the check above and registering would otherwise be missed
+        changesSince(clientEpoch, sinceVersion, statuses).ifPresent(result::setResult);
+        return result;
+    }
+
+    @EventListener
+    public void onCatalogPublished(ProductCatalogPublishedEvent event) {
+        ProductCatalog previous = event.getPrevious();
+        if (previous != null && epochOf(previous).equals(epochOf(event.getCatalog()))) {
+            record(previous, event.getCatalog());
+        } else if (previous != null) {
+            // versions of another epoch are not comparable; every watch of the old one gets a reset
+            synchronized (history) {
+                history.clear();
+            }
+        }
+
+        int notified = 0;
+        for (Waiter waiter : waiters) {
+            Optional<ProductChanges> changes = changesSince(waiter.epoch, waiter.sinceVersion, waiter.statuses);
+            if (changes.isPresent() && waiter.result.setResult(changes.get())) {
+                notified++;
+            }
+        }
+        log.debug("Catalog version {} published, notified {} watchers", event.getCatalog().getVersion(), notified);
+    }
+
+    /**
+     * Changes after {@code sinceVersion} among products with the given statuses (null for all), or
+     * empty if the caller is already current (or ahead of this instance).
+     */
+    Optional<ProductChanges> changesSince(String clientEpoch, Long sinceVersion, Set<Product.Status> statuses) {
+        ProductCatalog catalog = productCatalogService.getCatalog();
+        String epoch = epochOf(catalog);
+        if (sinceVersion == null || !epoch.equals(clientEpoch)) {
+            return Optional.of(reset(catalog, statuses));
+        }
+        // ahead: this instance has not loaded that version yet; the timeout answer resyncs the client
+        if (sinceVersion >= catalog.getVersion()) {
+            return Optional.empty();
+        }
+
+        Set<Long> touched = new HashSet<>();
+        synchronized (history) {
+            if (history.isEmpty() || history.peekFirst().fromVersion > sinceVersion) {
+                return Optional.of(reset(catalog, statuses));
+            }
+            // shared versions advance in steps of any size, so a delta may straddle sinceVersion
+            for (Delta delta : history) {
+                if (delta.toVersion > sinceVersion && delta.toVersion <= catalog.getVersion()) {
+                    touched.addAll(delta.productIds);
+                }
+            }
+        }
+
+        List<Product> changed = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (Long productId : touched) {
+            Optional<Product> product = catalog.findById(productId);
+            if (product.isPresent() && matches(product.get(), statuses)) {
+                changed.add(product.get());
+            } else {
+                removed.add(productId);
+            }
+        }
+        changed.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        removed.sort(Long::compare);
+        return Optional.of(new ProductChanges(epoch, catalog.getVersion(), false, changed, removed));
+    }
+
+    private static boolean matches(Product product, Set<Product.Status> statuses) {
+        return statuses == null || statuses.contains(product.getStatus());
+    }
+
+    /**
+     * Taken from the catalog itself, so the epoch and version a client receives always belong together.
+     */
+    public String epochOf(ProductCatalog catalog) {
+        return catalog.getEpoch() != null ? catalog.getEpoch() : localEpoch;
+    }
+
+    private void record(ProductCatalog previous, ProductCatalog current) {
+        Set<Long> productIds = new HashSet<>();
+        for (Product product : current.getAll()) {
+            if (!previous.findById(product.getId()).map(product::equals).orElse(false)) {
+                productIds.add(product.getId());
+            }
+        }
+        for (Product product : previous.getAll()) {
+            if (current.findById(product.getId()).isEmpty()) {
+                productIds.add(product.getId());
+            }
+        }
+
+        synchronized (history) {
+            history.addLast(new Delta(previous.getVersion(), current.getVersion(), productIds));
+            while (history.size() > historySize) {
+                history.removeFirst();
+            }
+        }
+    }
+
+    private ProductChanges reset(ProductCatalog catalog, Set<Product.Status> statuses) {
+        List<Product> products = statuses == null ? catalog.getAll()
+                : catalog.getAll().stream().filter(product -> matches(product, statuses)).toList();
+        return new ProductChanges(epochOf(catalog), catalog.getVersion(), true, products, List.of());
+    }
+
+    private ProductChanges noChanges(ProductCatalog catalog) {
+        return new ProductChanges(epochOf(catalog), catalog.getVersion(), false, List.of(), List.of());
+    }
+
+    private static final class Delta {
+        private final long fromVersion;
+        private final long toVersion;
+        private final Set<Long> productIds;
+
+        private Delta(long fromVersion, long toVersion, Set<Long> productIds) {
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+            this.productIds = productIds;
+        }
+    }
+
+    private static final class Waiter {
+        private final String epoch;
+        private final Long sinceVersion;
+        private final Set<Product.Status> statuses;
+        private final DeferredResult<ProductChanges> result;
+
+        private Waiter(String epoch, Long sinceVersion, Set<Product.Status> statuses,
+                       DeferredResult<ProductChanges> result) {
+            this.epoch = epoch;
+            this.sinceVersion = sinceVersion;
+            this.statuses = statuses;
+            this.result = result;
+        }
+    }
+}
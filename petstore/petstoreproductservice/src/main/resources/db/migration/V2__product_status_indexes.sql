@@ -0,0 +1,4 @@
+-- Catalog reads filter by status and join tags by product_id; both were full scans before.
+-- The existing schema is treated as baseline version 1 (spring.flyway.baseline-on-migrate).
+CREATE INDEX IF NOT EXISTS idx_product_status ON product (status);
+CREATE INDEX IF NOT EXISTS idx_product_tag_product_id ON product_tag (product_id);
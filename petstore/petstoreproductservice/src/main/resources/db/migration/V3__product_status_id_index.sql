@@ -0,0 +1,3 @@
+-- Keyset pagination seeks on (status, id); the composite index replaces the single-column one.
+CREATE INDEX IF NOT EXISTS idx_product_status_id ON product (status, id);
+DROP INDEX IF EXISTS idx_product_status;
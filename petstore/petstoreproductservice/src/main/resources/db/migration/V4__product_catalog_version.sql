@@ -0,0 +1,30 @@
+-- Change counter for the in-memory catalog: every statement that writes products, their tags or
+-- categories bumps it, so the periodic refresh reads one row instead of reloading the table.
+CREATE TABLE IF NOT EXISTS catalog_version (
+    name    VARCHAR(64) PRIMARY KEY,
+    version BIGINT      NOT NULL
+);
+INSERT INTO catalog_version (name, version) VALUES ('product', 1) ON CONFLICT (name) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_product_catalog_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE catalog_version SET version = version + 1 WHERE name = 'product';
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS product_catalog_version ON product;
+CREATE TRIGGER product_catalog_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON product
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_product_catalog_version();
+
+DROP TRIGGER IF EXISTS product_catalog_version ON product_tag;
+CREATE TRIGGER product_catalog_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON product_tag
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_product_catalog_version();
+
+DROP TRIGGER IF EXISTS product_catalog_version ON category;
+CREATE TRIGGER product_catalog_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON category
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_product_catalog_version();
+
+DROP TRIGGER IF EXISTS product_catalog_version ON tag;
+CREATE TRIGGER product_catalog_version AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON tag
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_product_catalog_version();
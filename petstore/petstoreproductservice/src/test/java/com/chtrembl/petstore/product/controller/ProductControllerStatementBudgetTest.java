@@ -0,0 +1,146 @@
+package com.chtrembl.petstore.product.controller;
+
+import com.chtrembl.petstore.product.CatalogTestDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement budgets for the {@link ProductController} endpoints, counted by Hibernate statistics.
+ * Before the in-memory catalog is loaded a lookup is one statement and a keyset page two (ids, then
+ * the products with their tags) however many products match, the export two per chunk, the catalog
+ * load is one statement, and once it is loaded no endpoint touches the database.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                "petstore.export.chunk-size=" + ProductControllerStatementBudgetTest.EXPORT_CHUNK_SIZE
+        })
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ProductControllerStatementBudgetTest {
+
+    static final int EXPORT_CHUNK_SIZE = 25;
+    private static final int PRODUCTS = 60;
+    private static final String BASE = "/petstoreproductservice/v2";
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = CatalogTestDatabase.newContainer();
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        CatalogTestDatabase.properties(POSTGRES).forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    @BeforeAll
+    static void insertProducts(@Autowired JdbcTemplate jdbcTemplate) {
+        CatalogTestDatabase.insertProducts(jdbcTemplate, PRODUCTS);
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @Order(1)
+    void findByStatusBeforeCatalogLoad() {
+        assertGetWithinBudget("/product/findByStatus?status=available&status=pending", 1);
+        assertGetWithinBudget("/product/findByStatus?status=available&format=normalized", 1);
+        assertGetWithinBudget("/product/findByStatus?status=available&limit=10&after=12", 2);
+    }
+
+    @Test
+    @Order(1)
+    void findByIdBeforeCatalogLoad() {
+        assertGetWithinBudget("/product/7", 1);
+    }
+
+    @Test
+    @Order(1)
+    void allBeforeCatalogLoad() {
+        assertGetWithinBudget("/product/all?limit=10&after=12", 2);
+        assertGetWithinBudget("/product/export?status=available&status=sold", exportBudget());
+        assertGetWithinBudget("/product/export", exportBudget());
+    }
+
+    @Test
+    @Order(2)
+    void catalogLoad() {
+        assertGetWithinBudget("/product/all", 1);
+    }
+
+    @Test
+    @Order(3)
+    void findByStatusFromCatalog() {
+        assertGetWithinBudget("/product/findByStatus?status=available&status=pending", 0);
+        assertGetWithinBudget("/product/findByStatus?status=available&format=normalized", 0);
+        assertGetWithinBudget("/product/findByStatus?status=available&limit=10&after=12", 0);
+        assertGetWithinBudget("/product/ids?status=available", 0);
+    }
+
+    @Test
+    @Order(3)
+    void findByIdFromCatalog() {
+        assertGetWithinBudget("/product/7", 0);
+        assertGetWithinBudget("/product/7/related?limit=5", 0);
+    }
+
+    @Test
+    @Order(3)
+    void allSearchAndWatchFromCatalog() {
+        assertGetWithinBudget("/product/all", 0);
+        assertGetWithinBudget("/product/all?format=normalized", 0);
+        assertGetWithinBudget("/product/all?limit=10&after=12", 0);
+        assertGetWithinBudget("/product/export", 0);
+        assertGetWithinBudget("/product/search?category=Category%203&tags=tag4", 0);
+        assertGetWithinBudget("/product/watch", 0);
+    }
+
+    /**
+     * Two statements per chunk (ids, then the products with their tags) plus the final empty id page.
+     */
+    private static long exportBudget() {
+        return 2L * ((PRODUCTS + EXPORT_CHUNK_SIZE - 1) / EXPORT_CHUNK_SIZE) + 1;
+    }
+
+    private void assertGetWithinBudget(String path, long budget) {
+        statistics.clear();
+        ResponseEntity<String> response = restTemplate.getForEntity(BASE + path, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), "GET " + path);
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= budget,
+                () -> "GET " + path + " prepared " + statements + " statements, budget is " + budget);
+    }
+}